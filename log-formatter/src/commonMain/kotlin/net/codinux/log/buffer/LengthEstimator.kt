@@ -0,0 +1,48 @@
+package net.codinux.log.buffer
+
+/**
+ * Keeps a cheap running estimate of the length of formatted output as exponentially weighted moving
+ * average, e.g. to presize buffers so that they don't have to be grown while formatting.
+ *
+ * Each recorded length is weighted with `1 / 2^smoothingShift`, that is 1/8 by default. The average is kept scaled
+ * by `2^smoothingShift`, so that small differences are not lost to integer division and the estimate doesn't drift.
+ *
+ * Updates are not synchronized, in case of concurrent updates a recorded length may get lost,
+ * which doesn't matter for an estimate.
+ */
+open class LengthEstimator(
+    initialEstimate: Int = DefaultInitialEstimate,
+    protected val smoothingShift: Int = DefaultSmoothingShift
+) {
+
+    companion object {
+        const val DefaultInitialEstimate = 128
+
+        const val DefaultInitialStackTraceEstimate = 2048
+
+        const val DefaultSmoothingShift = 3
+    }
+
+
+    // the moving average multiplied by 2^smoothingShift
+    private var scaledAverage: Long = initialEstimate.toLong() shl smoothingShift
+
+    var estimatedLength: Int = initialEstimate
+        protected set
+
+
+    open fun record(length: Int) {
+        val scaledAverage = this.scaledAverage + length - unscale(this.scaledAverage)
+        this.scaledAverage = scaledAverage
+
+        estimatedLength = unscale(scaledAverage).toInt()
+    }
+
+    // rounds to nearest, flooring would bias the estimate downwards
+    private fun unscale(scaledValue: Long): Long =
+        (scaledValue + (1L shl smoothingShift shr 1)) shr smoothingShift
+
+
+    override fun toString() = "Estimated length: $estimatedLength"
+
+}
@@ -0,0 +1,103 @@
+package net.codinux.log.buffer
+
+import net.codinux.log.platform.ThreadLocalValue
+
+/**
+ * Recycles [StringBuilder]s per thread, so that formatting a log line or stack trace does not start
+ * with a new 16 chars builder that has to be grown through several array copies each time.
+ *
+ * Builders have to be acquired and released in LIFO order, as it's the case for nested formatting
+ * like a stack trace that gets formatted while its log line is formatted. Up to
+ * [maxBuildersPerThread] nested builders are recycled per thread, for deeper nesting and on
+ * platforms without thread locals (JS, WASM, Native) or if [useThreadLocals] is set to `false` new
+ * builders are created.
+ *
+ * Builders whose capacity exceeds [maxRetainedCapacity] after use, e.g. after formatting a huge
+ * stack trace, are not retained and get replaced by a new builder of [initialCapacity]. Therefore
+ * pooled builders get presized to at most [maxRetainedCapacity].
+ */
+open class StringBuilderPool(
+    val initialCapacity: Int = DefaultInitialCapacity,
+    val maxRetainedCapacity: Int = DefaultMaxRetainedCapacity,
+    val maxBuildersPerThread: Int = DefaultMaxBuildersPerThread,
+    useThreadLocals: Boolean = true
+) {
+
+    companion object {
+        const val DefaultInitialCapacity = 256
+
+        const val DefaultMaxRetainedCapacity = 32 * 1024
+
+        const val DefaultMaxBuildersPerThread = 4
+
+        val Default by lazy { StringBuilderPool() }
+
+        /**
+         * Does not recycle builders, but creates a new one with [DefaultInitialCapacity] on each call to [acquire].
+         */
+        val NonRecycling by lazy { StringBuilderPool(useThreadLocals = false) }
+    }
+
+
+    private class ThreadBuilders(maxBuilders: Int) {
+        val builders = arrayOfNulls<StringBuilder>(maxBuilders)
+        var countInUse = 0
+    }
+
+
+    private val threadBuilders: ThreadLocalValue<ThreadBuilders>? =
+        if (useThreadLocals && maxBuildersPerThread > 0) ThreadLocalValue { ThreadBuilders(maxBuildersPerThread) }
+        else null
+
+
+    /**
+     * Returns an empty [StringBuilder] with a capacity of at least [expectedLength]. Pass it to [release] when done.
+     */
+    open fun acquire(expectedLength: Int = initialCapacity): StringBuilder {
+        val threadBuilders = threadBuilders?.get()
+        if (threadBuilders == null || threadBuilders.countInUse >= threadBuilders.builders.size) {
+            return StringBuilder(maxOf(initialCapacity, expectedLength))
+        }
+
+        // otherwise a too high estimate would let each pooled builder get dropped on release and be reallocated
+        val capacity = minOf(expectedLength, maxRetainedCapacity)
+        val index = threadBuilders.countInUse
+        val builder = threadBuilders.builders[index]
+            ?: StringBuilder(maxOf(initialCapacity, capacity)).also { threadBuilders.builders[index] = it }
+
+        builder.setLength(0)
+        builder.ensureCapacity(capacity)
+        threadBuilders.countInUse++
+
+        return builder
+    }
+
+    open fun release(builder: StringBuilder) {
+        val threadBuilders = threadBuilders?.get() ?: return
+        val index = threadBuilders.countInUse - 1
+
+        if (index >= 0 && threadBuilders.builders[index] === builder) { // otherwise it's not a pooled builder
+            if (builder.capacity() > maxRetainedCapacity) {
+                threadBuilders.builders[index] = null // don't retain huge buffers
+            }
+
+            threadBuilders.countInUse = index
+        }
+    }
+
+    /**
+     * Acquires a builder, passes it to [block] and returns the builder's content as String.
+     */
+    inline fun format(expectedLength: Int = initialCapacity, block: (StringBuilder) -> Unit): String {
+        val builder = acquire(expectedLength)
+
+        try {
+            block(builder)
+
+            return builder.toString()
+        } finally {
+            release(builder)
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package net.codinux.log.cache
+
+/**
+ * A bounded, lock-free cache for values that are expensive to compute but have a small set of keys,
+ * like formatted logger and thread names.
+ *
+ * It's direct-mapped: each key can only be stored in the slot determined by its hash code, so a lookup
+ * is one array access and one `equals()` call. On a collision the new entry evicts the existing one, so the
+ * cache never holds more than [capacity] entries, even for high-cardinality keys.
+ *
+ * Entries are immutable and published with a single reference write, so readers never see a partially
+ * constructed entry. Concurrent writers may overwrite each other's entries, which only costs a recomputation.
+ *
+ * [hits] and [misses] are only counted if [recordStatistics] is set, as writing to them on each lookup from all
+ * logging threads would contend for the same cache line. They are not exact under concurrent access.
+ */
+open class BoundedCache<K : Any, V : Any>(
+    maxSize: Int = DefaultMaxSize,
+    val recordStatistics: Boolean = false
+) {
+
+    companion object {
+        const val DefaultMaxSize = 512
+    }
+
+
+    private class Entry<K, V>(val key: K, val value: V)
+
+
+    /**
+     * The maximum count of entries, [maxSize] rounded up to the next power of two.
+     */
+    val capacity: Int = nextPowerOfTwo(maxSize)
+
+    private val mask = capacity - 1
+
+    private val slots = arrayOfNulls<Entry<K, V>>(capacity)
+
+    var hits: Long = 0
+        private set
+
+    var misses: Long = 0
+        private set
+
+    val hitRate: Double
+        get() {
+            val hits = hits
+            val total = hits + misses
+            return if (total == 0L) 0.0 else hits.toDouble() / total
+        }
+
+    val size: Int
+        get() = slots.count { it != null }
+
+
+    operator fun get(key: K): V? {
+        val entry = slots[indexOf(key)]
+
+        return if (entry != null && entry.key == key) {
+            if (recordStatistics) {
+                hits++
+            }
+            entry.value
+        } else {
+            if (recordStatistics) {
+                misses++
+            }
+            null
+        }
+    }
+
+    fun put(key: K, value: V) {
+        slots[indexOf(key)] = Entry(key, value)
+    }
+
+    inline fun getOrPut(key: K, computeValue: () -> V): V =
+        get(key) ?: computeValue().also { put(key, it) }
+
+    fun clear() {
+        slots.fill(null)
+    }
+
+
+    private fun indexOf(key: K): Int {
+        val hash = key.hashCode()
+
+        return (hash xor (hash ushr 16)) and mask
+    }
+
+    private fun nextPowerOfTwo(value: Int): Int {
+        var powerOfTwo = 1
+        while (powerOfTwo < value && powerOfTwo < (1 shl 30)) {
+            powerOfTwo = powerOfTwo shl 1
+        }
+
+        return powerOfTwo
+    }
+
+
+    override fun toString() = "$size of $capacity entries" + (if (recordStatistics) ", hit rate ${(hitRate * 100).toInt()} %" else "")
+
+}
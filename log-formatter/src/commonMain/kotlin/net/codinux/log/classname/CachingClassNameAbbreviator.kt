@@ -0,0 +1,59 @@
+package net.codinux.log.classname
+
+import net.codinux.log.cache.BoundedCache
+import kotlin.jvm.JvmOverloads
+
+/**
+ * A [ClassNameAbbreviator] that caches the abbreviated class names, so that abbreviating the same few hundred
+ * logger names over and over again becomes a single lookup.
+ *
+ * The cache is bounded to [maxCacheSize] entries, see [BoundedCache] for the eviction strategy. Reads are lock-free.
+ * [cacheHits] and [cacheMisses] are only counted if [recordCacheStatistics] is set.
+ */
+open class CachingClassNameAbbreviator @JvmOverloads constructor(
+    options: ClassNameAbbreviatorOptions = ClassNameAbbreviatorOptions.Default,
+    maxCacheSize: Int = BoundedCache.DefaultMaxSize,
+    recordCacheStatistics: Boolean = false
+) : ClassNameAbbreviator(options) {
+
+    companion object {
+        val Default by lazy { CachingClassNameAbbreviator() }
+    }
+
+
+    private data class Key(val qualifiedClassName: String, val maxLength: Int, val options: ClassNameAbbreviatorOptions)
+
+
+    private val cache = BoundedCache<Key, String>(maxCacheSize, recordCacheStatistics)
+
+    val cacheHits: Long
+        get() = cache.hits
+
+    val cacheMisses: Long
+        get() = cache.misses
+
+    val cacheHitRate: Double
+        get() = cache.hitRate
+
+    val cacheSize: Int
+        get() = cache.size
+
+
+    override fun abbreviate(qualifiedClassName: String, maxLength: Int, options: ClassNameAbbreviatorOptions): String {
+        if (qualifiedClassName.length <= maxLength) {
+            return qualifiedClassName
+        }
+
+        return cache.getOrPut(Key(qualifiedClassName, maxLength, options)) {
+            super.abbreviate(qualifiedClassName, maxLength, options)
+        }
+    }
+
+    open fun clearCache() {
+        cache.clear()
+    }
+
+
+    override fun toString() = "CachingClassNameAbbreviator: $cache"
+
+}
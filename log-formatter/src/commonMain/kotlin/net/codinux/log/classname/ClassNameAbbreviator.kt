@@ -2,7 +2,15 @@ package net.codinux.log.classname
 
 import kotlin.jvm.JvmOverloads
 import kotlin.math.max
+import kotlin.math.min
 
+/**
+ * Abbreviates qualified class names to a maximum length.
+ *
+ * The package segments are not split into Strings, instead the abbreviation strategies work on the start and end
+ * indices of the segments in the qualified class name and only compute how many characters of each segment to keep.
+ * The result then gets written once.
+ */
 open class ClassNameAbbreviator @JvmOverloads constructor(
     protected val options: ClassNameAbbreviatorOptions = ClassNameAbbreviatorOptions.Default
 ) {
@@ -17,115 +25,286 @@ open class ClassNameAbbreviator @JvmOverloads constructor(
             return qualifiedClassName
         }
 
-        val parts = qualifiedClassName.split('.')
+        val segmentEnds = getSegmentEnds(qualifiedClassName)
+        val countPackageSegments = segmentEnds.size - 1
 
-        val className = parts.last()
+        val classNameStart = if (countPackageSegments == 0) 0 else segmentEnds[countPackageSegments - 1] + 1
+        val classNameLength = qualifiedClassName.length - classNameStart
 
-        val abbreviatedClassName = if (className.length > maxLength) { // class name alone exceeds already maxLength
-            abbreviateClassName(className, maxLength, options)
+        val abbreviatedClassNameLength = if (classNameLength > maxLength) { // class name alone exceeds already maxLength
+            getAbbreviatedClassNameLength(classNameLength, maxLength, options)
         } else {
-            className
+            classNameLength
         }
 
-        val packageParts = parts.dropLast(1)
-        val abbreviatedPackageName = abbreviatePackageName(packageParts, maxLength, abbreviatedClassName.length, options)
+        val keptPackageSegmentLengths = if (countPackageSegments == 0) null
+                                        else getKeptPackageSegmentLengths(qualifiedClassName, segmentEnds, maxLength, abbreviatedClassNameLength, options)
+
+        val builder = StringBuilder(getResultLength(keptPackageSegmentLengths, abbreviatedClassNameLength))
+
+        if (keptPackageSegmentLengths != null) {
+            appendPackageSegments(qualifiedClassName, segmentEnds, keptPackageSegmentLengths, builder)
+            builder.append('.')
+        }
 
-        return if (abbreviatedPackageName == null) {
-            abbreviatedClassName
+        if (abbreviatedClassNameLength == classNameLength) {
+            builder.append(qualifiedClassName, classNameStart, qualifiedClassName.length)
         } else {
-            abbreviatedPackageName + "." + abbreviatedClassName
+            appendAbbreviatedClassName(qualifiedClassName, classNameStart, maxLength, options, builder)
         }
+
+        return builder.toString()
     }
 
 
-    protected open fun abbreviateClassName(className: String, maxLength: Int, options: ClassNameAbbreviatorOptions): String =
+    /**
+     * Returns the exclusive end index of each segment, the last one is the end of the class name.
+     */
+    protected open fun getSegmentEnds(qualifiedClassName: String): IntArray {
+        var countSegments = 1
+        for (char in qualifiedClassName) {
+            if (char == '.') {
+                countSegments++
+            }
+        }
+
+        val segmentEnds = IntArray(countSegments)
+        var segmentIndex = 0
+        qualifiedClassName.forEachIndexed { index, char ->
+            if (char == '.') {
+                segmentEnds[segmentIndex++] = index
+            }
+        }
+        segmentEnds[segmentIndex] = qualifiedClassName.length
+
+        return segmentEnds
+    }
+
+    protected fun getSegmentStart(segmentEnds: IntArray, segmentIndex: Int): Int =
+        if (segmentIndex == 0) 0 else segmentEnds[segmentIndex - 1] + 1
+
+    protected fun getSegmentLength(segmentEnds: IntArray, segmentIndex: Int): Int =
+        segmentEnds[segmentIndex] - getSegmentStart(segmentEnds, segmentIndex)
+
+
+    protected open fun getAbbreviatedClassNameLength(classNameLength: Int, maxLength: Int, options: ClassNameAbbreviatorOptions): Int =
+        when (options.classNameAbbreviation) {
+            ClassNameAbbreviationStrategy.KeepClassNameEvenIfLonger -> classNameLength
+            ClassNameAbbreviationStrategy.ClipStart, ClassNameAbbreviationStrategy.ClipEnd -> maxLength
+            ClassNameAbbreviationStrategy.EllipsisStart, ClassNameAbbreviationStrategy.EllipsisMiddle, ClassNameAbbreviationStrategy.EllipsisEnd ->
+                max(0, maxLength - options.classNameAbbreviationEllipsis.length) + options.classNameAbbreviationEllipsis.length
+        }
+
+    protected open fun appendAbbreviatedClassName(qualifiedClassName: String, classNameStart: Int, maxLength: Int,
+                                                  options: ClassNameAbbreviatorOptions, builder: StringBuilder) {
+        val end = qualifiedClassName.length
+        val ellipsis = options.classNameAbbreviationEllipsis
+        val lengthWithoutEllipsis = max(0, maxLength - ellipsis.length)
+
         when (options.classNameAbbreviation) {
-            ClassNameAbbreviationStrategy.KeepClassNameEvenIfLonger -> className
-            ClassNameAbbreviationStrategy.ClipStart -> className.takeLast(maxLength)
-            ClassNameAbbreviationStrategy.ClipEnd -> className.take(maxLength)
-            ClassNameAbbreviationStrategy.EllipsisStart -> options.classNameAbbreviationEllipsis +
-                    className.takeLast(maxLength - options.classNameAbbreviationEllipsis.length)
+            ClassNameAbbreviationStrategy.KeepClassNameEvenIfLonger -> builder.append(qualifiedClassName, classNameStart, end)
+            ClassNameAbbreviationStrategy.ClipStart -> builder.append(qualifiedClassName, end - maxLength, end)
+            ClassNameAbbreviationStrategy.ClipEnd -> builder.append(qualifiedClassName, classNameStart, classNameStart + maxLength)
+            ClassNameAbbreviationStrategy.EllipsisStart -> {
+                builder.append(ellipsis)
+                builder.append(qualifiedClassName, end - lengthWithoutEllipsis, end)
+            }
             ClassNameAbbreviationStrategy.EllipsisMiddle -> {
-                val lengthPerPart = (maxLength - options.classNameAbbreviationEllipsis.length) / 2
-                val remainingChars = (maxLength - options.classNameAbbreviationEllipsis.length) % 2
+                val lengthPerPart = lengthWithoutEllipsis / 2
+                val remainingChars = lengthWithoutEllipsis % 2
                 // in case of maxLength - options.classNameAbbreviationEllipsis.length is an odd number, give that additional char to the start part
-                className.take(lengthPerPart + remainingChars) + options.classNameAbbreviationEllipsis + className.takeLast(lengthPerPart)
+                builder.append(qualifiedClassName, classNameStart, classNameStart + lengthPerPart + remainingChars)
+                builder.append(ellipsis)
+                builder.append(qualifiedClassName, end - lengthPerPart, end)
+            }
+            ClassNameAbbreviationStrategy.EllipsisEnd -> {
+                builder.append(qualifiedClassName, classNameStart, classNameStart + lengthWithoutEllipsis)
+                builder.append(ellipsis)
             }
-            ClassNameAbbreviationStrategy.EllipsisEnd -> className.take(maxLength - options.classNameAbbreviationEllipsis.length) +
-                    options.classNameAbbreviationEllipsis
         }
+    }
 
 
-    protected open fun abbreviatePackageName(packageParts: List<String>, maxLength: Int, classNameLength: Int, options: ClassNameAbbreviatorOptions): String? {
-        val minPackageNameLength = packageParts.size * 2
+    /**
+     * Returns how many characters of each package segment to keep, or `null` if the package name should be omitted.
+     */
+    protected open fun getKeptPackageSegmentLengths(qualifiedClassName: String, segmentEnds: IntArray, maxLength: Int,
+                                                    classNameLength: Int, options: ClassNameAbbreviatorOptions): IntArray? {
+        val countPackageSegments = segmentEnds.size - 1
+        val minPackageNameLength = countPackageSegments * 2
         val minPackageSegmentsWithClassNameLength = classNameLength + minPackageNameLength
 
         return if (minPackageSegmentsWithClassNameLength > maxLength) {
             if (options.minPackageNameTooLongStrategy == MinPackageNameTooLongStrategy.KeepEvenIfLongerThanMaxLength) {
-                combine(firstCharOfEachPackageSegment(packageParts))
+                firstCharOfEachPackageSegment(segmentEnds)
             } else if (maxLength > classNameLength && options.minPackageNameTooLongStrategy == MinPackageNameTooLongStrategy.KeepOnlyIfMaxLengthLongerThanClassName) {
-                combine(firstCharOfEachPackageSegment(packageParts))
+                firstCharOfEachPackageSegment(segmentEnds)
             }  else {
                 null
             }
         } else if (minPackageSegmentsWithClassNameLength == maxLength) {
-            combine(firstCharOfEachPackageSegment(packageParts))
+            firstCharOfEachPackageSegment(segmentEnds)
         } else {
-            fillPackageSegments(packageParts, maxLength, classNameLength, options)
+            fillPackageSegments(segmentEnds, maxLength, classNameLength, options)
         }
     }
 
-    protected open fun fillPackageSegments(packageParts: List<String>, maxLength: Int, classNameLength: Int, options: ClassNameAbbreviatorOptions): String {
-        return when (options.packageAbbreviation) {
-            PackageAbbreviationStrategy.FillSegmentsEqually ->
-                fillPathSegmentsEqually(maxLength, classNameLength, packageParts)
-            PackageAbbreviationStrategy.FillSegmentsFromStart ->
-                fillPackageSegments(packageParts, maxLength, classNameLength, packageParts.indices.toList())
-            PackageAbbreviationStrategy.FillSegmentsFromEnd ->
-                fillPackageSegments(packageParts, maxLength, classNameLength, packageParts.indices.reversed().toList())
+    protected open fun fillPackageSegments(segmentEnds: IntArray, maxLength: Int, classNameLength: Int, options: ClassNameAbbreviatorOptions): IntArray =
+        when (options.packageAbbreviation) {
+            PackageAbbreviationStrategy.FillSegmentsEqually -> fillPackageSegmentsEqually(segmentEnds, maxLength, classNameLength)
+            PackageAbbreviationStrategy.FillSegmentsFromStart -> fillPackageSegments(segmentEnds, maxLength, classNameLength, fromStart = true)
+            PackageAbbreviationStrategy.FillSegmentsFromEnd -> fillPackageSegments(segmentEnds, maxLength, classNameLength, fromStart = false)
         }
+
+    protected open fun fillPackageSegmentsEqually(segmentEnds: IntArray, maxLength: Int, classNameLength: Int): IntArray {
+        val countPackageSegments = segmentEnds.size - 1
+        val remainingLength = maxLength - classNameLength - countPackageSegments
+        val charsPerSegment = max(1, (remainingLength / countPackageSegments)) // use at least one char per segment
+
+        return IntArray(countPackageSegments) { min(charsPerSegment, getSegmentLength(segmentEnds, it)) }
     }
 
-    protected open fun fillPathSegmentsEqually(maxLength: Int, classNameLength: Int, packageParts: List<String>): String {
-        val remainingLength = maxLength - classNameLength - packageParts.size
-        val charsPerSegment = max(1, (remainingLength / packageParts.size)) // use at least one char per segment
+    /**
+     * Expands the package segments in the order determined by [fromStart] to their full length till maxLength is
+     * reached, the segment that exceeds maxLength gets truncated to the remaining length.
+     */
+    protected open fun fillPackageSegments(segmentEnds: IntArray, maxLength: Int, classNameLength: Int, fromStart: Boolean): IntArray {
+        val countPackageSegments = segmentEnds.size - 1
 
-        return combine(packageParts.map { it.take(charsPerSegment) })
+        return fillPackageSegmentsInOrder(segmentEnds, maxLength, classNameLength, countPackageSegments) { step ->
+            if (fromStart) step else countPackageSegments - 1 - step
+        }
     }
 
-    protected open fun fillPackageSegments(
-        packageParts: List<String>,
-        maxLength: Int,
-        classNameLength: Int,
-        packageSegmentIndicesInWhichOrderSegmentsShouldBeFilled: List<Int>
-    ): String {
-        val abbreviatedParts = firstCharOfEachPackageSegment(packageParts).toMutableList()
+    private inline fun fillPackageSegmentsInOrder(segmentEnds: IntArray, maxLength: Int, classNameLength: Int, countSteps: Int,
+                                                  segmentIndexAt: (step: Int) -> Int): IntArray {
+        val countPackageSegments = segmentEnds.size - 1
+        val keptLengths = firstCharOfEachPackageSegment(segmentEnds)
+        var packageNameLength = keptLengths.sum() + countPackageSegments - 1 // segments plus the dots between them
 
-        // expand package segments till maxLength is reached
-        for (i in packageSegmentIndicesInWhichOrderSegmentsShouldBeFilled) {
-            abbreviatedParts[i] = packageParts[i]
+        for (step in 0 until countSteps) {
+            val i = segmentIndexAt(step)
+            val segmentLength = getSegmentLength(segmentEnds, i)
 
-            val candidate = combine(abbreviatedParts)
-            if (candidate.length + classNameLength + 1 > maxLength) {
+            packageNameLength += segmentLength - keptLengths[i]
+            keptLengths[i] = segmentLength
+
+            if (packageNameLength + classNameLength + 1 > maxLength) {
                 // the last expansion caused an overflow, truncate it to optimal length
-                val countTooManyChars = candidate.length + classNameLength + 1 - maxLength
-                if (abbreviatedParts[i].length - countTooManyChars <= 0) {
-                    abbreviatedParts[i] = packageParts[i].first().toString() // keep at least one character
+                val countTooManyChars = packageNameLength + classNameLength + 1 - maxLength
+                keptLengths[i] = if (segmentLength - countTooManyChars <= 0) {
+                    min(1, segmentLength) // keep at least one character
                 } else {
-                    abbreviatedParts[i] = abbreviatedParts[i].dropLast(countTooManyChars)
+                    segmentLength - countTooManyChars
                 }
 
                 break
             }
         }
 
-        return combine(abbreviatedParts)
+        return keptLengths
+    }
+
+    protected open fun firstCharOfEachPackageSegment(segmentEnds: IntArray): IntArray =
+        IntArray(segmentEnds.size - 1) { min(1, getSegmentLength(segmentEnds, it)) }
+
+
+    private fun getResultLength(keptPackageSegmentLengths: IntArray?, classNameLength: Int): Int =
+        if (keptPackageSegmentLengths == null) {
+            classNameLength
+        } else {
+            keptPackageSegmentLengths.sum() + keptPackageSegmentLengths.size + classNameLength // each segment is followed by a dot
+        }
+
+    protected open fun appendPackageSegments(qualifiedClassName: String, segmentEnds: IntArray, keptLengths: IntArray, builder: StringBuilder) {
+        for (i in keptLengths.indices) {
+            if (i > 0) {
+                builder.append('.')
+            }
+
+            val start = getSegmentStart(segmentEnds, i)
+            builder.append(qualifiedClassName, start, start + keptLengths[i])
+        }
+    }
+
+
+
+    /*      Former String based API, abbreviate() works on segment indices now and doesn't call these methods anymore      */
+
+    @Deprecated("Not called by abbreviate() anymore, override appendAbbreviatedClassName() instead")
+    protected open fun abbreviateClassName(className: String, maxLength: Int, options: ClassNameAbbreviatorOptions): String =
+        if (className.length <= maxLength) {
+            className
+        } else {
+            StringBuilder(getAbbreviatedClassNameLength(className.length, maxLength, options)).also { builder ->
+                appendAbbreviatedClassName(className, 0, maxLength, options, builder)
+            }.toString()
+        }
+
+    @Deprecated("Not called by abbreviate() anymore, override getKeptPackageSegmentLengths() instead")
+    protected open fun abbreviatePackageName(packageParts: List<String>, maxLength: Int, classNameLength: Int, options: ClassNameAbbreviatorOptions): String? {
+        if (packageParts.isEmpty()) {
+            return null
+        }
+
+        val qualifiedClassName = toQualifiedClassName(packageParts)
+        val segmentEnds = getSegmentEnds(qualifiedClassName)
+
+        return getKeptPackageSegmentLengths(qualifiedClassName, segmentEnds, maxLength, classNameLength, options)?.let { keptLengths ->
+            toPackageName(qualifiedClassName, segmentEnds, keptLengths)
+        }
     }
 
+    @Deprecated("Not called by abbreviate() anymore, override fillPackageSegments(IntArray, Int, Int, ClassNameAbbreviatorOptions) instead")
+    protected open fun fillPackageSegments(packageParts: List<String>, maxLength: Int, classNameLength: Int, options: ClassNameAbbreviatorOptions): String {
+        val qualifiedClassName = toQualifiedClassName(packageParts)
+        val segmentEnds = getSegmentEnds(qualifiedClassName)
+
+        return toPackageName(qualifiedClassName, segmentEnds, fillPackageSegments(segmentEnds, maxLength, classNameLength, options))
+    }
+
+    @Deprecated("Not called by abbreviate() anymore, override fillPackageSegmentsEqually() instead")
+    protected open fun fillPathSegmentsEqually(maxLength: Int, classNameLength: Int, packageParts: List<String>): String {
+        val qualifiedClassName = toQualifiedClassName(packageParts)
+        val segmentEnds = getSegmentEnds(qualifiedClassName)
+
+        return toPackageName(qualifiedClassName, segmentEnds, fillPackageSegmentsEqually(segmentEnds, maxLength, classNameLength))
+    }
+
+    @Deprecated("Not called by abbreviate() anymore, override fillPackageSegments(IntArray, Int, Int, Boolean) instead")
+    protected open fun fillPackageSegments(
+        packageParts: List<String>,
+        maxLength: Int,
+        classNameLength: Int,
+        packageSegmentIndicesInWhichOrderSegmentsShouldBeFilled: List<Int>
+    ): String {
+        val qualifiedClassName = toQualifiedClassName(packageParts)
+        val segmentEnds = getSegmentEnds(qualifiedClassName)
+        val order = packageSegmentIndicesInWhichOrderSegmentsShouldBeFilled
+
+        val keptLengths = fillPackageSegmentsInOrder(segmentEnds, maxLength, classNameLength, order.size) { step -> order[step] }
+
+        return toPackageName(qualifiedClassName, segmentEnds, keptLengths)
+    }
+
+    @Deprecated("Not called by abbreviate() anymore, override firstCharOfEachPackageSegment(IntArray) instead")
     protected open fun firstCharOfEachPackageSegment(packageParts: List<String>): List<String> =
-        packageParts.map { it.first().toString() }
+        packageParts.map { it.take(1) }
 
+    @Deprecated("Not called by abbreviate() anymore, package segments get appended in appendPackageSegments()")
     protected open fun combine(packageSegments: List<String>): String =
         packageSegments.joinToString(".")
 
-}
\ No newline at end of file
+    /**
+     * Appends an empty class name to the package segments, so that the last segment is the class name as
+     * [getSegmentEnds] expects it.
+     */
+    private fun toQualifiedClassName(packageParts: List<String>): String =
+        packageParts.joinToString(".", postfix = ".")
+
+    private fun toPackageName(qualifiedClassName: String, segmentEnds: IntArray, keptLengths: IntArray): String =
+        StringBuilder(getResultLength(keptLengths, 0)).also { builder ->
+            appendPackageSegments(qualifiedClassName, segmentEnds, keptLengths, builder)
+        }.toString()
+
+}
@@ -0,0 +1,155 @@
+package net.codinux.log.encoding
+
+/**
+ * Encodes characters directly to UTF-8 bytes, e.g. from the [StringBuilder] a log line has been formatted to,
+ * so that no intermediate String has to be created.
+ *
+ * As most characters in log lines like literals, log levels and logger names are ASCII characters,
+ * ASCII characters are handled by a fast path. Unpaired surrogates get encoded as `'?'` like the JVM does.
+ */
+open class Utf8Encoder {
+
+    companion object {
+        /**
+         * The maximum count of bytes one [Char] may be encoded to. Surrogate pairs are encoded to 4 bytes,
+         * that is 2 bytes per [Char].
+         */
+        const val MaxBytesPerChar = 3
+
+        private const val ReplacementByte = '?'.code.toByte()
+
+        val Default by lazy { Utf8Encoder() }
+    }
+
+
+    open fun encodedLength(chars: CharSequence, startIndex: Int = 0, endIndex: Int = chars.length): Int {
+        var length = endIndex - startIndex
+        var index = startIndex
+
+        while (index < endIndex) {
+            val char = chars[index]
+            val code = char.code
+
+            if (code >= 0x80) {
+                if (code < 0x800) {
+                    length += 1
+                } else if (char.isSurrogate() == false) {
+                    length += 2
+                } else if (isSurrogatePair(chars, index, endIndex)) {
+                    length += 2 // 4 bytes for two chars
+                    index++
+                } // unpaired surrogates get replaced by '?', which is one byte
+            }
+
+            index++
+        }
+
+        return length
+    }
+
+    open fun encode(chars: CharSequence, startIndex: Int = 0, endIndex: Int = chars.length): ByteArray {
+        val bytes = ByteArray(encodedLength(chars, startIndex, endIndex))
+
+        encodeInto(chars, bytes, 0, startIndex, endIndex)
+
+        return bytes
+    }
+
+    /**
+     * Encodes [chars] into [destination] starting at [destinationOffset].
+     *
+     * The caller has to ensure that [destination] has space for at least [encodedLength] bytes.
+     *
+     * @return The index in [destination] after the last written byte.
+     */
+    open fun encodeInto(chars: CharSequence, destination: ByteArray, destinationOffset: Int = 0,
+                        startIndex: Int = 0, endIndex: Int = chars.length): Int {
+        var index = startIndex
+        var position = destinationOffset
+
+        // ASCII fast path
+        while (index < endIndex) {
+            val code = chars[index].code
+            if (code >= 0x80) {
+                break
+            }
+
+            destination[position++] = code.toByte()
+            index++
+        }
+
+        while (index < endIndex) {
+            val char = chars[index]
+            val code = char.code
+
+            if (code < 0x80) {
+                destination[position++] = code.toByte()
+            } else if (code < 0x800) {
+                destination[position++] = (0xC0 or (code shr 6)).toByte()
+                destination[position++] = (0x80 or (code and 0x3F)).toByte()
+            } else if (char.isSurrogate() == false) {
+                destination[position++] = (0xE0 or (code shr 12)).toByte()
+                destination[position++] = (0x80 or ((code shr 6) and 0x3F)).toByte()
+                destination[position++] = (0x80 or (code and 0x3F)).toByte()
+            } else if (isSurrogatePair(chars, index, endIndex)) {
+                val codePoint = 0x10000 + ((code - 0xD800) shl 10) + (chars[index + 1].code - 0xDC00)
+                destination[position++] = (0xF0 or (codePoint shr 18)).toByte()
+                destination[position++] = (0x80 or ((codePoint shr 12) and 0x3F)).toByte()
+                destination[position++] = (0x80 or ((codePoint shr 6) and 0x3F)).toByte()
+                destination[position++] = (0x80 or (codePoint and 0x3F)).toByte()
+                index++
+            } else {
+                destination[position++] = ReplacementByte
+            }
+
+            index++
+        }
+
+        return position
+    }
+
+    /**
+     * Returns the largest index so that the characters from [startIndex] up to that index encode to
+     * at most [maxBytes] bytes. Surrogate pairs never get split.
+     */
+    open fun indexOfMaxEncodedLength(chars: CharSequence, maxBytes: Int, startIndex: Int = 0, endIndex: Int = chars.length): Int {
+        if (endIndex - startIndex <= maxBytes / MaxBytesPerChar) {
+            return endIndex // even if all characters are encoded to the maximum byte count, they fit
+        }
+
+        var countBytes = 0
+        var index = startIndex
+
+        while (index < endIndex) {
+            val char = chars[index]
+            val code = char.code
+
+            var countChars = 1
+            val bytes = if (code < 0x80) {
+                1
+            } else if (code < 0x800) {
+                2
+            } else if (char.isSurrogate() == false) {
+                3
+            } else if (isSurrogatePair(chars, index, endIndex)) {
+                countChars = 2
+                4
+            } else {
+                1 // unpaired surrogates get replaced by '?'
+            }
+
+            if (countBytes + bytes > maxBytes) {
+                break
+            }
+
+            countBytes += bytes
+            index += countChars
+        }
+
+        return index
+    }
+
+    protected open fun isSurrogatePair(chars: CharSequence, index: Int, endIndex: Int): Boolean =
+        chars[index].isHighSurrogate() && index + 1 < endIndex && chars[index + 1].isLowSurrogate()
+
+}
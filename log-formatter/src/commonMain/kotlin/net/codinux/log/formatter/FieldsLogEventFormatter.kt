@@ -1,7 +1,10 @@
 package net.codinux.log.formatter
 
 import net.codinux.log.LogEvent
+import net.codinux.log.buffer.LengthEstimator
+import net.codinux.log.buffer.StringBuilderPool
 import net.codinux.log.formatter.fields.*
+import net.codinux.log.formatter.plan.FormatPlan
 
 /**
  * Formats log events according to the [LogLinePartFormatter] fields passed to the constructor.
@@ -30,14 +33,95 @@ open class FieldsLogEventFormatter(
 
     protected open val messageFields: List<LogLinePartFormatter> = getMessageFields(fields)
 
+    protected open val eventPlan: FormatPlan = FormatPlan(fields)
+
+    protected open val messagePlan: FormatPlan = FormatPlan(messageFields)
+
+    protected open val stringBuilderPool: StringBuilderPool = StringBuilderPool.Default
+
+    // lines with a stack trace are magnitudes longer than lines without, so estimate them separately
+    protected open val eventLength = LengthEstimator()
+
+    protected open val eventWithExceptionLength = LengthEstimator(LengthEstimator.DefaultInitialStackTraceEstimate)
+
 
     override fun formatMessage(event: LogEvent): String = formatFields(messageFields, event)
 
     override fun formatEvent(event: LogEvent): String = formatFields(fields, event)
 
-    protected open fun formatFields(fields: Collection<LogLinePartFormatter>, event: LogEvent): String = buildString {
-        fields.forEach { field ->
-            append(field.format(event))
+    override fun formatEventsTo(events: List<LogEvent>, builder: StringBuilder): IntArray {
+        // resolve everything that's the same for all events once per batch
+        val fields = fields
+        val eventLength = eventLength
+        val eventWithExceptionLength = eventWithExceptionLength
+
+        val offsets = IntArray(events.size + 1)
+        offsets[0] = builder.length
+        builder.ensureCapacity(builder.length + events.size * eventLength.estimatedLength)
+
+        events.forEachIndexed { index, event ->
+            formatFieldsTo(fields, event, null, builder)
+
+            val endIndex = builder.length
+            val length = endIndex - offsets[index]
+            offsets[index + 1] = endIndex
+
+            if (event.exception == null) eventLength.record(length) else eventWithExceptionLength.record(length)
+        }
+
+        return offsets
+    }
+
+    override fun estimateLength(event: LogEvent): Int = getLengthEstimator(event).estimatedLength
+
+    /**
+     * Prepares [loggerName] for the first [LoggerNameFormatter] of [fields]. If there are more than one, the
+     * others keep formatting the logger name for each event.
+     */
+    override fun prepareLoggerName(loggerName: String): PreparedLoggerName? =
+        fields.firstNotNullOfOrNull { field -> (field as? LoggerNameFormatter)?.prepare(loggerName) }
+
+    protected open fun getLengthEstimator(event: LogEvent): LengthEstimator =
+        if (event.exception == null) eventLength else eventWithExceptionLength
+
+    override fun formatMessageTo(event: LogEvent, builder: StringBuilder) = formatFieldsTo(messageFields, event, null, builder)
+
+    override fun formatEventTo(event: LogEvent, builder: StringBuilder) = formatFieldsTo(fields, event, null, builder)
+
+    override fun formatEventTo(event: LogEvent, loggerName: PreparedLoggerName?, builder: StringBuilder) =
+        formatFieldsTo(fields, event, loggerName, builder)
+
+    protected open fun formatFields(fields: Collection<LogLinePartFormatter>, event: LogEvent): String =
+        if (fields === this.fields) {
+            stringBuilderPool.format(estimateLength(event)) { builder ->
+                formatFieldsTo(fields, event, null, builder)
+
+                getLengthEstimator(event).record(builder.length)
+            }
+        } else {
+            stringBuilderPool.format { formatFieldsTo(fields, event, null, it) }
+        }
+
+    /**
+     * The fields and message fields of this formatter have been compiled to a [FormatPlan], all other fields get
+     * formatted one after the other.
+     *
+     * [loggerName] is the handle returned by [prepareLoggerName] or `null` if the logger name is not prepared.
+     */
+    protected open fun formatFieldsTo(fields: Collection<LogLinePartFormatter>, event: LogEvent, loggerName: PreparedLoggerName?,
+                                      builder: StringBuilder) {
+        if (fields === this.fields) {
+            eventPlan.formatTo(event, loggerName, builder)
+        } else if (fields === messageFields) {
+            messagePlan.formatTo(event, loggerName, builder)
+        } else {
+            fields.forEach { field ->
+                if (loggerName != null && field is LoggerNameFormatter) {
+                    field.formatTo(event, loggerName, builder)
+                } else {
+                    field.formatTo(event, builder)
+                }
+            }
         }
     }
 
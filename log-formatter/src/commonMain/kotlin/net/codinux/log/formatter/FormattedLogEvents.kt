@@ -0,0 +1,31 @@
+package net.codinux.log.formatter
+
+/**
+ * A batch of formatted log events stored in one contiguous buffer.
+ *
+ * The event at index `i` is stored in [text] from `offsets[i]` (inclusive) to `offsets[i + 1]` (exclusive),
+ * so [offsets] has one more element than there are events.
+ */
+class FormattedLogEvents(
+    val text: CharSequence,
+    val offsets: IntArray
+) {
+
+    val size: Int
+        get() = offsets.size - 1
+
+    fun startIndexOf(index: Int): Int = offsets[index]
+
+    fun endIndexOf(index: Int): Int = offsets[index + 1]
+
+    /**
+     * Returns the formatted event at [index]. Creates a new String, prefer accessing [text] directly with
+     * [startIndexOf] and [endIndexOf].
+     */
+    operator fun get(index: Int): String =
+        text.subSequence(startIndexOf(index), endIndexOf(index)).toString()
+
+
+    override fun toString() = text.toString()
+
+}
@@ -2,11 +2,15 @@ package net.codinux.log.formatter
 
 import net.codinux.log.LogEvent
 import net.codinux.log.formatter.fields.LogLinePartFormatter
+import net.codinux.log.formatter.fields.LoggerNameFormatter
+import net.codinux.log.formatter.fields.PreparedLoggerName
 import net.codinux.log.formatter.pattern.PatternParser
 
 interface LogEventFormatter {
 
     companion object {
+        const val DefaultEstimatedLength = 128
+
         val Simple by lazy { SimpleLogEventFormatter.Default }
 
         fun fields(vararg fields: LogLinePartFormatter) = FieldsLogEventFormatter(*fields)
@@ -31,4 +35,74 @@ interface LogEventFormatter {
      */
     fun formatEvent(event: LogEvent): String
 
+    /**
+     * Same as [formatMessage], but appends the formatted message and exception to [builder]
+     * instead of returning a new String.
+     */
+    fun formatMessageTo(event: LogEvent, builder: StringBuilder) {
+        builder.append(formatMessage(event))
+    }
+
+    /**
+     * Same as [formatEvent], but appends the formatted [LogEvent] to [builder] instead of
+     * returning a new String.
+     */
+    fun formatEventTo(event: LogEvent, builder: StringBuilder) {
+        builder.append(formatEvent(event))
+    }
+
+    /**
+     * Formats a whole batch of [events] into one contiguous buffer.
+     */
+    fun formatEvents(events: List<LogEvent>): FormattedLogEvents {
+        // sum up the estimates per event, as events with an exception are magnitudes longer than events without
+        val builder = StringBuilder(events.sumOf { estimateLength(it) })
+
+        val offsets = formatEventsTo(events, builder)
+
+        return FormattedLogEvents(builder, offsets)
+    }
+
+    /**
+     * Appends a whole batch of [events] to [builder].
+     *
+     * @return The offsets of the formatted events in [builder]: the event at index `i` starts at `offsets[i]`
+     * and ends at `offsets[i + 1]` (exclusive).
+     */
+    fun formatEventsTo(events: List<LogEvent>, builder: StringBuilder): IntArray {
+        val offsets = IntArray(events.size + 1)
+        offsets[0] = builder.length
+
+        events.forEachIndexed { index, event ->
+            formatEventTo(event, builder)
+            offsets[index + 1] = builder.length
+        }
+
+        return offsets
+    }
+
+    /**
+     * A cheap estimate of how many characters [formatEvent] returns for [event], e.g. to presize buffers.
+     *
+     * It's not the exact length, implementations may learn it from previously formatted events.
+     */
+    fun estimateLength(event: LogEvent): Int = DefaultEstimatedLength
+
+    /**
+     * Lets logging backends register a logger name when the logger gets created, so that its formatted output
+     * can be computed once instead of for each event, see [LoggerNameFormatter.prepare].
+     *
+     * The logger keeps the returned handle and passes it to [formatEventTo] for each of its events. Returns `null`
+     * if this formatter doesn't format logger names, which it does by default.
+     */
+    fun prepareLoggerName(loggerName: String): PreparedLoggerName? = null
+
+    /**
+     * Same as [formatEventTo], but appends the output prepared for [event]'s logger by [prepareLoggerName]
+     * instead of formatting the logger name again.
+     */
+    fun formatEventTo(event: LogEvent, loggerName: PreparedLoggerName?, builder: StringBuilder) {
+        formatEventTo(event, builder)
+    }
+
 }
\ No newline at end of file
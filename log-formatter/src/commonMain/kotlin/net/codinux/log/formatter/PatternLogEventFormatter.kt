@@ -1,6 +1,8 @@
 package net.codinux.log.formatter
 
 import net.codinux.log.LogEvent
+import net.codinux.log.formatter.fields.PreparedLoggerName
+import net.codinux.log.formatter.pattern.CompiledPatternCache
 import net.codinux.log.formatter.pattern.PatternParser
 
 /**
@@ -8,13 +10,18 @@ import net.codinux.log.formatter.pattern.PatternParser
  */
 open class PatternLogEventFormatter(
     val pattern: String,
-    parser: PatternParser = PatternParser.Default
+    parser: PatternParser = PatternParser.Default,
+    /**
+     * Shares parsed patterns between formatters. Set to `null` to always parse [pattern].
+     */
+    protected open val compiledPatternCache: CompiledPatternCache? = CompiledPatternCache.Default
 ) : LogEventFormatter {
 
     protected open val fieldsFormatter = parsePattern(pattern, parser)
 
     protected open fun parsePattern(pattern: String, parser: PatternParser): LogEventFormatter {
-        val fields = parser.parse(pattern)
+        val fields = compiledPatternCache?.getOrCompile(pattern, parser)?.parts
+            ?: parser.parse(pattern)
 
         return FieldsLogEventFormatter(fields)
     }
@@ -24,6 +31,19 @@ open class PatternLogEventFormatter(
 
     override fun formatEvent(event: LogEvent) = fieldsFormatter.formatEvent(event)
 
+    override fun formatMessageTo(event: LogEvent, builder: StringBuilder) = fieldsFormatter.formatMessageTo(event, builder)
+
+    override fun formatEventTo(event: LogEvent, builder: StringBuilder) = fieldsFormatter.formatEventTo(event, builder)
+
+    override fun formatEventsTo(events: List<LogEvent>, builder: StringBuilder) = fieldsFormatter.formatEventsTo(events, builder)
+
+    override fun estimateLength(event: LogEvent) = fieldsFormatter.estimateLength(event)
+
+    override fun prepareLoggerName(loggerName: String) = fieldsFormatter.prepareLoggerName(loggerName)
+
+    override fun formatEventTo(event: LogEvent, loggerName: PreparedLoggerName?, builder: StringBuilder) =
+        fieldsFormatter.formatEventTo(event, loggerName, builder)
+
 
     override fun toString() = "Pattern LogEventFormatter with pattern '$pattern'.\n" +
             "Formatting of parsed pattern delegated to: $fieldsFormatter."
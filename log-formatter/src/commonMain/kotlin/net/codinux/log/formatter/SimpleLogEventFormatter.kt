@@ -22,18 +22,46 @@ open class SimpleLogEventFormatter(
     }
 
 
-    override fun formatEvent(event: LogEvent): String = with(event) {
-        "${level.toString().padEnd(5, ' ')} $loggerName " +
-                "${threadName?.let { "[$it] " } ?: ""}- ${formatMessage(event)}"
-    }
+    override fun formatEvent(event: LogEvent): String {
+        val builder = StringBuilder()
+
+        formatEventTo(event, builder)
 
-    override fun formatMessage(event: LogEvent): String = with(event) {
-        val exception = event.exception
+        return builder.toString()
+    }
 
-        if (exception == null) {
-            message
+    override fun formatMessage(event: LogEvent): String =
+        if (event.exception == null) {
+            event.message
         } else {
-            "$message:${LineSeparator.System}${stackTraceFormatter.format(exception)}"
+            val builder = StringBuilder()
+
+            formatMessageTo(event, builder)
+
+            builder.toString()
+        }
+
+    override fun formatEventTo(event: LogEvent, builder: StringBuilder) {
+        val level = event.level.toString()
+        builder.append(level)
+        repeat(5 - level.length) { builder.append(' ') }
+
+        builder.append(' ').append(event.loggerName).append(' ')
+
+        event.threadName?.let { threadName ->
+            builder.append('[').append(threadName).append("] ")
+        }
+
+        builder.append("- ")
+        formatMessageTo(event, builder)
+    }
+
+    override fun formatMessageTo(event: LogEvent, builder: StringBuilder) {
+        builder.append(event.message)
+
+        event.exception?.let { exception ->
+            builder.append(':').append(LineSeparator.System)
+            stackTraceFormatter.formatTo(exception, builder)
         }
     }
 
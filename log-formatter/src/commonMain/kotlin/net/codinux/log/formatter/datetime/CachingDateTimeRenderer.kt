@@ -0,0 +1,98 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.Instant
+import net.dankito.datetime.LocalDateTime
+import net.dankito.datetime.format.pattern.DateTimeComponentFormatter
+import kotlin.concurrent.Volatile
+
+/**
+ * Renders timestamps according to a [CompiledDateTimePattern].
+ *
+ * Most log events of a busy application share the same second, so the parts of the pattern that change at most
+ * once per second are formatted only once per second and cached. For each event only the fraction of second gets
+ * written. Per-second parts that could be compiled to [DateTimeEmitter]s are written by them, all others by [formatter].
+ *
+ * The cache is an immutable snapshot that gets replaced as a whole, so readers never see a partially updated cache
+ * and no locks are needed. If two threads format a new second at the same time, both format it, one wins.
+ */
+open class CachingDateTimeRenderer(
+    protected val pattern: CompiledDateTimePattern,
+    protected val formatter: DateTimeComponentFormatter = DateTimeComponentFormatter.Default,
+    protected val timeZone: TimeZoneConverter = TimeZoneConverter.SystemTimeZone
+) : DateTimeRenderer {
+
+    protected class SecondSnapshot(val epochSecond: Long, val formattedSegments: Array<String?>)
+
+
+    @Volatile
+    private var snapshot: SecondSnapshot? = null
+
+
+    override fun render(timestamp: Instant): String {
+        val builder = StringBuilder(pattern.pattern.length + 8)
+
+        renderTo(timestamp, builder)
+
+        return builder.toString()
+    }
+
+    override fun renderTo(timestamp: Instant, builder: StringBuilder) {
+        if (pattern.isSplittable == false) {
+            builder.append(formatter.format(toLocalDateTime(timestamp), pattern.pattern))
+            return
+        }
+
+        val snapshot = getSnapshot(timestamp)
+        val segments = pattern.segments
+
+        for (index in segments.indices) {
+            val segment = segments[index]
+
+            if (segment is DateTimePatternSegment.FractionOfSecond) {
+                appendFractionOfSecond(timestamp.nanosecondsOfSecond, segment.digits, builder)
+            } else {
+                builder.append(snapshot.formattedSegments[index])
+            }
+        }
+    }
+
+
+    protected open fun getSnapshot(timestamp: Instant): SecondSnapshot {
+        val cached = snapshot
+        if (cached != null && cached.epochSecond == timestamp.epochSeconds) {
+            return cached
+        }
+
+        val dateTime = toLocalDateTime(timestamp)
+        val formattedSegments = pattern.segments.map { segment ->
+            if (segment is DateTimePatternSegment.SecondPrecision) formatSecondPrecisionSegment(segment, dateTime) else null
+        }.toTypedArray()
+
+        return SecondSnapshot(timestamp.epochSeconds, formattedSegments).also { this.snapshot = it }
+    }
+
+    protected open fun formatSecondPrecisionSegment(segment: DateTimePatternSegment.SecondPrecision, dateTime: LocalDateTime): String {
+        val emitters = segment.emitters ?: return formatter.format(dateTime, segment.pattern)
+
+        val builder = StringBuilder(segment.pattern.length + 4)
+        emitters.forEach { it.emit(dateTime, builder) }
+
+        return builder.toString()
+    }
+
+    protected open fun toLocalDateTime(timestamp: Instant): LocalDateTime =
+        timeZone.toLocalDateTime(timestamp)
+
+    protected open fun appendFractionOfSecond(nanosecondsOfSecond: Int, digits: Int, builder: StringBuilder) {
+        var divisor = 100_000_000 // the first digit is the tenth of second
+
+        repeat(digits) {
+            builder.append('0' + (nanosecondsOfSecond / divisor) % 10)
+            divisor /= 10
+        }
+    }
+
+
+    override fun toString() = "Caching renderer for $pattern"
+
+}
@@ -0,0 +1,174 @@
+package net.codinux.log.formatter.datetime
+
+/**
+ * A date time pattern split into the parts that change at most once per second and the fraction of second parts.
+ *
+ * If the pattern contains a sub-second field other than the fraction of second `S`, like nano of day, it cannot be
+ * split and [isSplittable] is `false`.
+ *
+ * The per-second parts get further compiled into [DateTimeEmitter]s if they only contain numeric fields and literals.
+ */
+class CompiledDateTimePattern(val pattern: String) {
+
+    companion object {
+        const val FractionOfSecondLetter = 'S'
+
+        const val MaxFractionOfSecondDigits = 9
+
+        private const val Apostrophe = '\''
+
+        // nano of second, nano of day and milli of day change more often than once per second but cannot be spliced in as fraction
+        private val OtherSubSecondLetters = setOf('n', 'N', 'A')
+
+        // characters for optional sections and reserved for future use in java.time patterns
+        private val ReservedChars = setOf('[', ']', '{', '}', '#')
+    }
+
+
+    val segments: List<DateTimePatternSegment>
+
+    val isSplittable: Boolean
+
+    /**
+     * If all per-second parts could be compiled to [DateTimeEmitter]s.
+     */
+    val isCompiledToEmitters: Boolean
+
+    init {
+        val segments = splitIntoSegments(pattern)
+
+        this.segments = segments ?: listOf(DateTimePatternSegment.SecondPrecision(pattern))
+        this.isSplittable = segments != null
+        this.isCompiledToEmitters = isSplittable
+                && this.segments.all { it !is DateTimePatternSegment.SecondPrecision || it.emitters != null }
+    }
+
+
+    private fun splitIntoSegments(pattern: String): List<DateTimePatternSegment>? {
+        val segments = mutableListOf<DateTimePatternSegment>()
+        var segmentStart = 0
+        var isInQuotes = false
+        var index = 0
+
+        while (index < pattern.length) {
+            val char = pattern[index]
+
+            if (char == Apostrophe) {
+                isInQuotes = !isInQuotes // an escaped apostrophe '' toggles twice
+                index++
+            } else if (isInQuotes) {
+                index++
+            } else if (char in OtherSubSecondLetters) {
+                return null
+            } else if (char == FractionOfSecondLetter) {
+                val fractionStart = index
+                while (index < pattern.length && pattern[index] == FractionOfSecondLetter) {
+                    index++
+                }
+
+                val digits = index - fractionStart
+                if (digits > MaxFractionOfSecondDigits) {
+                    return null
+                }
+
+                if (fractionStart > segmentStart) {
+                    segments.add(createSecondPrecisionSegment(pattern.substring(segmentStart, fractionStart)))
+                }
+                segments.add(DateTimePatternSegment.FractionOfSecond(digits))
+                segmentStart = index
+            } else {
+                index++
+            }
+        }
+
+        if (segmentStart < pattern.length) {
+            segments.add(createSecondPrecisionSegment(pattern.substring(segmentStart)))
+        }
+
+        return segments
+    }
+
+    private fun createSecondPrecisionSegment(pattern: String) =
+        DateTimePatternSegment.SecondPrecision(pattern, compileEmitters(pattern))
+
+    private fun compileEmitters(pattern: String): List<DateTimeEmitter>? {
+        val emitters = mutableListOf<DateTimeEmitter>()
+        val literal = StringBuilder()
+        var index = 0
+
+        while (index < pattern.length) {
+            val char = pattern[index]
+
+            if (char == Apostrophe) {
+                if (index + 1 < pattern.length && pattern[index + 1] == Apostrophe) { // escaped apostrophe
+                    literal.append(Apostrophe)
+                    index += 2
+                } else {
+                    val quoteEnd = indexOfClosingApostrophe(pattern, index + 1)
+                    if (quoteEnd == -1) {
+                        return null
+                    }
+
+                    literal.append(pattern.substring(index + 1, quoteEnd).replace("''", "'"))
+                    index = quoteEnd + 1
+                }
+            } else if (char in 'a'..'z' || char in 'A'..'Z') {
+                val letterStart = index
+                while (index < pattern.length && pattern[index] == char) {
+                    index++
+                }
+
+                val field = getNumericField(char, index - letterStart) ?: return null
+
+                if (literal.isNotEmpty()) {
+                    emitters.add(DateTimeEmitter.Literal(literal.toString()))
+                    literal.clear()
+                }
+                emitters.add(DateTimeEmitter.Number(field, if (field == DateTimeField.TwoDigitYear) 2 else index - letterStart))
+            } else if (char in ReservedChars) {
+                return null
+            } else {
+                literal.append(char)
+                index++
+            }
+        }
+
+        if (literal.isNotEmpty()) {
+            emitters.add(DateTimeEmitter.Literal(literal.toString()))
+        }
+
+        return emitters
+    }
+
+    private fun indexOfClosingApostrophe(pattern: String, startIndex: Int): Int {
+        var index = startIndex
+
+        while (index < pattern.length) {
+            if (pattern[index] == Apostrophe) {
+                if (index + 1 < pattern.length && pattern[index + 1] == Apostrophe) {
+                    index += 2 // escaped apostrophe within quotes
+                } else {
+                    return index
+                }
+            } else {
+                index++
+            }
+        }
+
+        return -1
+    }
+
+    private fun getNumericField(letter: Char, count: Int): DateTimeField? = when (letter) {
+        'y', 'u' -> if (count == 2) DateTimeField.TwoDigitYear else DateTimeField.Year
+        'M' -> if (count <= 2) DateTimeField.Month else null // 3 or more letters are month names
+        'd' -> if (count <= 2) DateTimeField.Day else null
+        'H' -> if (count <= 2) DateTimeField.Hour else null
+        'm' -> if (count <= 2) DateTimeField.Minute else null
+        's' -> if (count <= 2) DateTimeField.Second else null
+        else -> null
+    }
+
+
+    override fun toString() = "'$pattern': $segments"
+
+}
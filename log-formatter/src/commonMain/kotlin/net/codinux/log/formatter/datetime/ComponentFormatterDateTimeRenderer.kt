@@ -0,0 +1,23 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.Instant
+import net.dankito.datetime.format.pattern.DateTimeComponentFormatter
+
+/**
+ * Formats each timestamp with [formatter]. Used for custom [DateTimeComponentFormatter]s, as the other renderers
+ * produce the output of [DateTimeComponentFormatter.Default] without calling it for each timestamp.
+ */
+open class ComponentFormatterDateTimeRenderer(
+    protected val pattern: String,
+    protected val formatter: DateTimeComponentFormatter,
+    protected val timeZone: TimeZoneConverter = TimeZoneConverter.SystemTimeZone
+) : DateTimeRenderer {
+
+    override fun renderTo(timestamp: Instant, builder: StringBuilder) {
+        builder.append(formatter.format(timeZone.toLocalDateTime(timestamp), pattern))
+    }
+
+
+    override fun toString() = "'$pattern' formatted by $formatter"
+
+}
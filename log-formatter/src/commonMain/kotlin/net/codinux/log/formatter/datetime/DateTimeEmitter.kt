@@ -0,0 +1,62 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.LocalDateTime
+
+/**
+ * Writes one part of a formatted date time directly to the output, without creating intermediate Strings.
+ */
+sealed class DateTimeEmitter {
+
+    abstract fun emit(dateTime: LocalDateTime, builder: StringBuilder)
+
+
+    class Literal(val text: String) : DateTimeEmitter() {
+
+        override fun emit(dateTime: LocalDateTime, builder: StringBuilder) {
+            builder.append(text)
+        }
+
+        override fun toString() = "Literal '$text'"
+    }
+
+    class Number(val field: DateTimeField, val minDigits: Int) : DateTimeEmitter() {
+
+        override fun emit(dateTime: LocalDateTime, builder: StringBuilder) {
+            appendPaddedNumber(field.getValue(dateTime), minDigits, builder)
+        }
+
+        override fun toString() = "$field with at least $minDigits digits"
+    }
+
+
+    companion object {
+
+        /**
+         * Appends [value] left-padded with zeros to [minDigits] digits.
+         */
+        fun appendPaddedNumber(value: Int, minDigits: Int, builder: StringBuilder) {
+            var absolute = if (value < 0) {
+                builder.append('-')
+                -value
+            } else {
+                value
+            }
+
+            var divisor = 1
+            var countDigits = 1
+            while (absolute / divisor >= 10) {
+                divisor *= 10
+                countDigits++
+            }
+
+            repeat(minDigits - countDigits) { builder.append('0') }
+
+            while (divisor > 0) {
+                builder.append('0' + absolute / divisor)
+                absolute %= divisor
+                divisor /= 10
+            }
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.LocalDateTime
+
+enum class DateTimeField {
+    Year,
+    TwoDigitYear,
+    Month,
+    Day,
+    Hour,
+    Minute,
+    Second;
+
+
+    fun getValue(dateTime: LocalDateTime): Int = when (this) {
+        Year -> dateTime.year
+        TwoDigitYear -> dateTime.year % 100
+        Month -> dateTime.month
+        Day -> dateTime.day
+        Hour -> dateTime.hour
+        Minute -> dateTime.minute
+        Second -> dateTime.second
+    }
+}
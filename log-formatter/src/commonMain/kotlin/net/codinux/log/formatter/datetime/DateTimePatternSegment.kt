@@ -0,0 +1,21 @@
+package net.codinux.log.formatter.datetime
+
+sealed class DateTimePatternSegment {
+
+    /**
+     * A part of a date time pattern whose formatted value changes at most once per second, like `yyyy-MM-dd HH:mm:ss`.
+     *
+     * [emitters] is `null` if the pattern contains fields that cannot be compiled to emitters, like month names.
+     */
+    class SecondPrecision(val pattern: String, val emitters: List<DateTimeEmitter>? = null) : DateTimePatternSegment() {
+        override fun toString() = "Second precision '$pattern'"
+    }
+
+    /**
+     * The fraction of second, like `SSS` for milliseconds, written with [digits] digits.
+     */
+    class FractionOfSecond(val digits: Int) : DateTimePatternSegment() {
+        override fun toString() = "Fraction of second with $digits digits"
+    }
+
+}
@@ -0,0 +1,51 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.Instant
+import net.dankito.datetime.format.pattern.DateTimeComponentFormatter
+
+/**
+ * Writes a timestamp in a fixed format.
+ */
+interface DateTimeRenderer {
+
+    companion object {
+        const val DefaultLayout = "yyyy-MM-dd HH:mm:ss,SSS"
+
+        const val Iso8601Layout = "yyyy-MM-dd'T'HH:mm:ss.SSS"
+
+        const val Iso8601WithCommaLayout = "yyyy-MM-dd'T'HH:mm:ss,SSS"
+
+        /**
+         * Pseudo pattern for milliseconds since epoch, the same as in Logback.
+         */
+        const val EpochMillisPattern = "UNIX_MILLIS"
+
+
+        /**
+         * Returns a dedicated renderer for well-known layouts and a [CachingDateTimeRenderer] for all other patterns.
+         *
+         * If [formatter] is not [DateTimeComponentFormatter.Default], all patterns except of [EpochMillisPattern] get
+         * formatted by it for each timestamp, see [ComponentFormatterDateTimeRenderer].
+         */
+        fun forPattern(pattern: String, formatter: DateTimeComponentFormatter = DateTimeComponentFormatter.Default,
+                       timeZone: TimeZoneConverter = TimeZoneConverter.SystemTimeZone): DateTimeRenderer = when {
+            pattern == EpochMillisPattern -> EpochMillisDateTimeRenderer.Default // not a pattern DateTimeComponentFormatter knows
+            formatter !== DateTimeComponentFormatter.Default -> ComponentFormatterDateTimeRenderer(pattern, formatter, timeZone)
+            pattern == DefaultLayout -> FixedLayoutDateTimeRenderer(' ', ',', timeZone)
+            pattern == Iso8601Layout -> FixedLayoutDateTimeRenderer('T', '.', timeZone)
+            pattern == Iso8601WithCommaLayout -> FixedLayoutDateTimeRenderer('T', ',', timeZone)
+            else -> CachingDateTimeRenderer(CompiledDateTimePattern(pattern), formatter, timeZone)
+        }
+    }
+
+    fun render(timestamp: Instant): String {
+        val builder = StringBuilder(32)
+
+        renderTo(timestamp, builder)
+
+        return builder.toString()
+    }
+
+    fun renderTo(timestamp: Instant, builder: StringBuilder)
+
+}
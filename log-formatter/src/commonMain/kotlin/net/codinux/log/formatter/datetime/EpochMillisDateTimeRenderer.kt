@@ -0,0 +1,24 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.Instant
+
+/**
+ * Writes the milliseconds since epoch, like Logback's `%d{UNIX_MILLIS}`.
+ */
+open class EpochMillisDateTimeRenderer : DateTimeRenderer {
+
+    companion object {
+        val Default by lazy { EpochMillisDateTimeRenderer() }
+    }
+
+
+    override fun render(timestamp: Instant): String = timestamp.toEpochMilliseconds().toString()
+
+    override fun renderTo(timestamp: Instant, builder: StringBuilder) {
+        builder.append(timestamp.toEpochMilliseconds())
+    }
+
+
+    override fun toString() = "Epoch millis"
+
+}
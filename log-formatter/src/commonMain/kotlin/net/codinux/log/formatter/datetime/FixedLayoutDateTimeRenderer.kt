@@ -0,0 +1,84 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.Instant
+import net.dankito.datetime.LocalDateTime
+import kotlin.concurrent.Volatile
+
+/**
+ * Hand-optimized renderer for the layout `yyyy-MM-dd HH:mm:ss,SSS` and its variants with other separators,
+ * like ISO-8601's `yyyy-MM-dd'T'HH:mm:ss.SSS`.
+ *
+ * The first 20 characters up to the fraction separator are written once per second to a char array and are then
+ * copied for each event, the milliseconds get written digit by digit.
+ */
+open class FixedLayoutDateTimeRenderer(
+    protected val dateTimeSeparator: Char = ' ',
+    protected val fractionSeparator: Char = ',',
+    protected val timeZone: TimeZoneConverter = TimeZoneConverter.SystemTimeZone
+) : DateTimeRenderer {
+
+    companion object {
+        private const val PrefixLength = 20 // "yyyy-MM-dd HH:mm:ss,"
+    }
+
+
+    protected class SecondSnapshot(val epochSecond: Long, val prefix: CharArray)
+
+
+    @Volatile
+    private var snapshot: SecondSnapshot? = null
+
+
+    override fun render(timestamp: Instant): String {
+        val builder = StringBuilder(PrefixLength + 3)
+
+        renderTo(timestamp, builder)
+
+        return builder.toString()
+    }
+
+    override fun renderTo(timestamp: Instant, builder: StringBuilder) {
+        val prefix = getSnapshot(timestamp).prefix
+        builder.appendRange(prefix, 0, prefix.size)
+
+        val millis = timestamp.nanosecondsOfSecond / 1_000_000
+        builder.append('0' + millis / 100)
+        builder.append('0' + (millis / 10) % 10)
+        builder.append('0' + millis % 10)
+    }
+
+
+    protected open fun getSnapshot(timestamp: Instant): SecondSnapshot {
+        val cached = snapshot
+        if (cached != null && cached.epochSecond == timestamp.epochSeconds) {
+            return cached
+        }
+
+        val dateTime = timeZone.toLocalDateTime(timestamp)
+
+        return SecondSnapshot(timestamp.epochSeconds, createPrefix(dateTime)).also { this.snapshot = it }
+    }
+
+    protected open fun createPrefix(dateTime: LocalDateTime): CharArray {
+        val builder = StringBuilder(PrefixLength)
+
+        DateTimeEmitter.appendPaddedNumber(dateTime.year, 4, builder)
+        builder.append('-')
+        DateTimeEmitter.appendPaddedNumber(dateTime.month, 2, builder)
+        builder.append('-')
+        DateTimeEmitter.appendPaddedNumber(dateTime.day, 2, builder)
+        builder.append(dateTimeSeparator)
+        DateTimeEmitter.appendPaddedNumber(dateTime.hour, 2, builder)
+        builder.append(':')
+        DateTimeEmitter.appendPaddedNumber(dateTime.minute, 2, builder)
+        builder.append(':')
+        DateTimeEmitter.appendPaddedNumber(dateTime.second, 2, builder)
+        builder.append(fractionSeparator)
+
+        return builder.toString().toCharArray()
+    }
+
+
+    override fun toString() = "Fixed layout yyyy-MM-dd${dateTimeSeparator}HH:mm:ss${fractionSeparator}SSS"
+
+}
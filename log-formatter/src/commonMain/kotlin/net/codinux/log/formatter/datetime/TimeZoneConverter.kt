@@ -0,0 +1,39 @@
+package net.codinux.log.formatter.datetime
+
+import net.codinux.log.platform.LogFormatterPlatform
+import net.dankito.datetime.Instant
+import net.dankito.datetime.LocalDateTime
+
+/**
+ * Converts timestamps to the local date time in a time zone.
+ */
+interface TimeZoneConverter {
+
+    companion object {
+        val Utc: TimeZoneConverter by lazy { object : TimeZoneConverter {
+            override fun toLocalDateTime(timestamp: Instant) = timestamp.toLocalDateTimeAtUtc()
+            override fun toString() = "UTC"
+        } }
+
+        val SystemTimeZone: TimeZoneConverter by lazy { object : TimeZoneConverter {
+            override fun toLocalDateTime(timestamp: Instant) = timestamp.toLocalDateTimeAtSystemTimeZone()
+            override fun toString() = "System time zone"
+        } }
+
+
+        /**
+         * Returns the converter for time zone [zoneId] like `Europe/Berlin`, or `null` if the time zone is unknown
+         * or time zones other than UTC and the system time zone are not supported on this platform.
+         */
+        fun forZoneId(zoneId: String): TimeZoneConverter? =
+            if ("UTC".equals(zoneId, ignoreCase = true)) {
+                Utc
+            } else {
+                LogFormatterPlatform.getTimeZoneRules(zoneId)?.let { ZoneOffsetTransitionConverter(it) }
+            }
+    }
+
+
+    fun toLocalDateTime(timestamp: Instant): LocalDateTime
+
+}
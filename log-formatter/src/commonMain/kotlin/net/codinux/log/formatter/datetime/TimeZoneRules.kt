@@ -0,0 +1,15 @@
+package net.codinux.log.formatter.datetime
+
+/**
+ * The UTC offsets and their transitions of a time zone.
+ */
+interface TimeZoneRules {
+
+    val zoneId: String
+
+    /**
+     * Returns the period with constant UTC offset that contains [epochSecond].
+     */
+    fun getOffsetPeriod(epochSecond: Long): ZoneOffsetPeriod
+
+}
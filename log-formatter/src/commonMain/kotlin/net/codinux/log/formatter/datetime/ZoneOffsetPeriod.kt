@@ -0,0 +1,19 @@
+package net.codinux.log.formatter.datetime
+
+/**
+ * The period from [startEpochSecond] (inclusive) to [endEpochSecond] (exclusive) in which a time zone has the
+ * constant UTC offset [offsetSeconds], e.g. the summer time of a year.
+ */
+class ZoneOffsetPeriod(
+    val startEpochSecond: Long,
+    val endEpochSecond: Long,
+    val offsetSeconds: Int
+) {
+
+    fun contains(epochSecond: Long): Boolean =
+        epochSecond >= startEpochSecond && epochSecond < endEpochSecond
+
+
+    override fun toString() = "Offset $offsetSeconds s from $startEpochSecond until $endEpochSecond"
+
+}
@@ -0,0 +1,37 @@
+package net.codinux.log.formatter.datetime
+
+import net.dankito.datetime.Instant
+import net.dankito.datetime.LocalDateTime
+import kotlin.concurrent.Volatile
+
+/**
+ * Converts timestamps to the local date time of a time zone with the offset of the cached current [ZoneOffsetPeriod].
+ *
+ * As long as timestamps are in the cached period, e.g. the current summer time, the conversion is a range check and
+ * an addition. Only when a timestamp is outside of it, [rules] get queried and the cached period gets replaced.
+ */
+open class ZoneOffsetTransitionConverter(protected val rules: TimeZoneRules) : TimeZoneConverter {
+
+    @Volatile
+    private var period: ZoneOffsetPeriod? = null
+
+
+    override fun toLocalDateTime(timestamp: Instant): LocalDateTime {
+        val offsetSeconds = getOffsetPeriod(timestamp.epochSeconds).offsetSeconds
+
+        return Instant(timestamp.epochSeconds + offsetSeconds, timestamp.nanosecondsOfSecond).toLocalDateTimeAtUtc()
+    }
+
+    protected open fun getOffsetPeriod(epochSecond: Long): ZoneOffsetPeriod {
+        val cached = period
+        if (cached != null && cached.contains(epochSecond)) {
+            return cached
+        }
+
+        return rules.getOffsetPeriod(epochSecond).also { this.period = it }
+    }
+
+
+    override fun toString() = rules.zoneId
+
+}
@@ -2,6 +2,9 @@ package net.codinux.log.formatter.fields
 
 import net.codinux.log.LogEvent
 import net.codinux.log.error.ErrorReporter
+import net.codinux.log.formatter.datetime.DateTimeRenderer
+import net.codinux.log.formatter.datetime.TimeZoneConverter
+import net.dankito.datetime.LocalDateTime
 import net.dankito.datetime.format.pattern.DateTimeComponentFormatter
 
 open class DateTimeFormatter(
@@ -12,30 +15,76 @@ open class DateTimeFormatter(
 
     companion object {
         const val DefaultDateTimeFormat = "yyyy-MM-dd HH:mm:ss,SSS" // the same default as in Logback and JBoss Logging
+
+        // Logback's named patterns
+        const val Iso8601PatternName = "ISO8601"
+
+        const val EpochMillisPatternName = DateTimeRenderer.EpochMillisPattern
+
+        private val PatternValidationDateTime = LocalDateTime(2015, 10, 21, 9, 8, 7, 654_321_000)
     }
 
 
-    protected open val dateTimePattern: String? by lazy { firstOption }
+    /**
+     * The date time pattern, [DefaultDateTimeFormat] if `null`. Resolved and validated when constructing the formatter.
+     */
+    protected open val dateTimePattern: String? = firstOption?.takeUnless { it.isBlank() }?.let { resolvePattern(it) }
+
+    protected open val timeZone: String? = secondOption?.takeUnless { it.isBlank() }
+
+    // created on first use, as during construction overrides of the properties above in derived classes are not initialized yet
+
+    protected open val timeZoneConverter: TimeZoneConverter by lazy { resolveTimeZone(timeZone) }
+
+    protected open val renderer: DateTimeRenderer by lazy {
+        DateTimeRenderer.forPattern(dateTimePattern ?: DefaultDateTimeFormat, formatter, timeZoneConverter)
+    }
 
-    protected open val timeZone: String? by lazy { secondOption }
 
+    override fun getField(event: LogEvent): String {
+        val timestamp = event.timestamp
 
-    override fun getField(event: LogEvent): String =
-        if (event.timestamp == null) {
+        return if (timestamp == null) {
             FieldValueNotAvailable
         } else {
-            val timestamp = event.timestamp!!
-            val dateTime = if ("UTC".equals(timeZone, ignoreCase = true)) timestamp.toLocalDateTimeAtUtc()
-                            else if (timeZone == null) timestamp.toLocalDateTimeAtSystemTimeZone()
-                            else {
-                                ErrorReporter.reportError("Time zone for date time format has been set to '$timeZone', " +
-                                        "but the only currently supported time zone value is 'UTC'. Falling back to system time zone")
-                                timestamp.toLocalDateTimeAtSystemTimeZone()
-                            }
-
-            val pattern = dateTimePattern ?: DefaultDateTimeFormat
-
-            formatter.format(dateTime, pattern)
+            renderer.render(timestamp)
+        }
+    }
+
+    override fun appendField(event: LogEvent, builder: StringBuilder) {
+        val timestamp = event.timestamp
+
+        if (timestamp != null) {
+            renderer.renderTo(timestamp, builder)
+        }
+    }
+
+
+    private fun resolvePattern(pattern: String): String = when (pattern) {
+        Iso8601PatternName -> DefaultDateTimeFormat // Logback's ISO8601 is the same as the default pattern
+        EpochMillisPatternName -> pattern
+        else -> validatePattern(pattern)
+    }
+
+    private fun validatePattern(pattern: String): String {
+        try {
+            formatter.format(PatternValidationDateTime, pattern)
+        } catch (e: Throwable) {
+            throw IllegalArgumentException("Invalid date time pattern '$pattern': ${e.message}", e)
+        }
+
+        return pattern
+    }
+
+    private fun resolveTimeZone(timeZone: String?): TimeZoneConverter =
+        if (timeZone == null) {
+            TimeZoneConverter.SystemTimeZone
+        } else {
+            TimeZoneConverter.forZoneId(timeZone) ?: run {
+                ErrorReporter.reportError("Time zone for date time format has been set to '$timeZone', but it's unknown " +
+                        "or not supported on this platform. Falling back to system time zone")
+                TimeZoneConverter.SystemTimeZone
+            }
         }
 
-}
\ No newline at end of file
+}
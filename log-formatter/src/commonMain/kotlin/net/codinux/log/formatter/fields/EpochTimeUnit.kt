@@ -0,0 +1,8 @@
+package net.codinux.log.formatter.fields
+
+enum class EpochTimeUnit {
+    Seconds,
+    Millis,
+    Micros,
+    Nanos
+}
@@ -0,0 +1,36 @@
+package net.codinux.log.formatter.fields
+
+import net.codinux.log.LogEvent
+import net.dankito.datetime.Instant
+
+/**
+ * Writes the timestamp of the event as number of [unit]s since epoch, e.g. for log shippers that would otherwise
+ * have to parse a formatted date time.
+ */
+open class EpochTimestampFormatter(
+    format: FieldFormat? = null,
+    protected open val unit: EpochTimeUnit = EpochTimeUnit.Millis
+) : FieldFormatter(format) {
+
+    override fun getField(event: LogEvent): String =
+        event.timestamp?.let { toEpochValue(it).toString() } ?: FieldValueNotAvailable
+
+    override fun appendField(event: LogEvent, builder: StringBuilder) {
+        val timestamp = event.timestamp
+
+        if (timestamp != null) {
+            builder.append(toEpochValue(timestamp)) // appends the digits directly without creating a String
+        }
+    }
+
+    protected open fun toEpochValue(timestamp: Instant): Long = when (unit) {
+        EpochTimeUnit.Seconds -> timestamp.epochSeconds
+        EpochTimeUnit.Millis -> timestamp.epochSeconds * 1_000 + timestamp.nanosecondsOfSecond / 1_000_000
+        EpochTimeUnit.Micros -> timestamp.epochSeconds * 1_000_000 + timestamp.nanosecondsOfSecond / 1_000
+        EpochTimeUnit.Nanos -> timestamp.epochSeconds * 1_000_000_000 + timestamp.nanosecondsOfSecond
+    }
+
+
+    override fun toString() = "Epoch ${unit.name.lowercase()}"
+
+}
@@ -9,51 +9,156 @@ abstract class FieldFormatter(
 
     companion object {
         const val FieldValueNotAvailable = ""
+
+        private val BuiltInFormatters by lazy { setOf(
+            DateTimeFormatter::class, EpochTimestampFormatter::class, LineSeparatorFormatter::class, LogLevelFormatter::class,
+            LoggerNameFormatter::class, MessageFormatter::class, RelativeTimeFormatter::class, ThreadNameFormatter::class,
+            ThrowableFormatter::class
+        ) }
     }
 
 
     protected abstract fun getField(event: LogEvent): String
 
+    /**
+     * `true` if this is one of the built-in formatters and not a derived class.
+     */
+    internal val isBuiltInFormatter: Boolean = this::class in BuiltInFormatters
+
+    /**
+     * If `true`, [formatTo] appends the field value directly to the buffer with [appendField] and
+     * [appendFormattedField]. Otherwise it appends the result of [format].
+     *
+     * Only the built-in formatters append directly, as derived classes may override [format], [getField] or
+     * [formatValue], which the append methods don't call. Override it if your formatter implements the append
+     * methods consistently with these methods.
+     */
+    protected open val appendsToBuffer: Boolean
+        get() = isBuiltInFormatter
+
+    /**
+     * Appends the unformatted field value to [builder]. Override it if the value can be written
+     * without creating a String first, see [appendsToBuffer].
+     */
+    protected open fun appendField(event: LogEvent, builder: StringBuilder) {
+        builder.append(getField(event))
+    }
 
-    protected open val optionsList: List<String> by lazy { options?.split(",") ?: emptyList() }
 
-    open val firstOption: String? by lazy { unwrapOption(optionsList.firstOrNull()) }
+    // Options get resolved eagerly, so that reading them when formatting an event is a plain field access.
+    // As they are read when constructing the formatter, overrides have to be getters that don't depend on
+    // properties of the derived class, which are not initialized yet at that time.
 
-    open val firstOptionAsInt: Int? by lazy { firstOption?.toIntOrNull() }
+    protected open val optionsList: List<String> = splitOptions(options)
 
-    open val secondOption: String? by lazy {
-        if (optionsList.size >= 2) {
-            unwrapOption(optionsList[1])
-        } else {
-            null
+    open val firstOption: String? = unwrapOption(optionsList.firstOrNull())
+
+    open val firstOptionAsInt: Int? = firstOption?.toIntOrNull()
+
+    open val secondOption: String? = if (optionsList.size >= 2) unwrapOption(optionsList[1]) else null
+
+    open val secondOptionAsInt: Int? = secondOption?.toIntOrNull()
+
+    /**
+     * Splits options at commas, except for commas within quotes or apostrophes like in `"HH:mm:ss,SSS"`.
+     */
+    protected fun splitOptions(options: String?): List<String> {
+        if (options.isNullOrEmpty()) {
+            return emptyList()
+        }
+
+        val result = mutableListOf<String>()
+        var startIndex = 0
+        var quote: Char? = null
+
+        options.forEachIndexed { index, char ->
+            if (quote != null) {
+                if (char == quote) {
+                    quote = null
+                }
+            } else if (char == '"' || char == '\'') {
+                quote = char
+            } else if (char == ',') {
+                result.add(options.substring(startIndex, index))
+                startIndex = index + 1
+            }
         }
-    }
 
-    open val secondOptionAsInt: Int? by lazy { secondOption?.toIntOrNull() }
+        result.add(options.substring(startIndex))
+
+        return result
+    }
 
     protected open fun unwrapOption(option: String?): String? =
         if (option == null) {
             null
-        } else if (option.startsWith('"') && option.endsWith('"')) {
+        } else if (option.length >= 2 && option.startsWith('"') && option.endsWith('"')) {
             option.substring(1, option.length - 1)
-        } else if (option.startsWith('\'') && option.endsWith('\'')) {
+        } else if (option.length >= 2 && option.startsWith('\'') && option.endsWith('\'')) {
             option.substring(1, option.length - 1)
         } else {
             option
         }
 
+    /**
+     * Returns [option] as Int or `null` if it's not set.
+     *
+     * @throws IllegalArgumentException If [option] is set but is not an integer.
+     */
+    protected fun requireIntOrNull(option: String?, optionDescription: String): Int? =
+        if (option.isNullOrBlank()) {
+            null
+        } else {
+            option.trim().toIntOrNull()
+                ?: throw IllegalArgumentException("$optionDescription has to be an integer, but was '$option'")
+        }
+
 
     override fun format(event: LogEvent): String {
-        val value = getField(event)
+        val format = format
+        if (format == null || format.isMinWidthOrMaxWidthSet == false) { // if min width or max width is not set, then format cannot be applied
+            return getField(event)
+        }
+
+        return getFormattedField(event, format)
+    }
+
+    override fun formatTo(event: LogEvent, builder: StringBuilder) {
+        if (appendsToBuffer == false) {
+            builder.append(format(event))
+            return
+        }
 
         val format = format
         if (format == null || format.isMinWidthOrMaxWidthSet == false) { // if min width or max width is not set, then format cannot be applied
-            return value
+            appendFieldValue(event, builder)
+        } else {
+            appendFormattedFieldValue(event, format, builder)
         }
+    }
+
+    internal fun appendFieldValue(event: LogEvent, builder: StringBuilder) {
+        appendField(event, builder)
+    }
 
-        return formatValue(value, format)
+    internal fun appendFormattedFieldValue(event: LogEvent, format: FieldFormat, builder: StringBuilder) {
+        appendFormattedField(event, format, builder)
     }
 
+    /**
+     * Appends the field value with [format] applied to [builder]. Override it together with [getFormattedField],
+     * e.g. to append cached formatted values.
+     */
+    protected open fun appendFormattedField(event: LogEvent, format: FieldFormat, builder: StringBuilder) {
+        appendFormattedValue(getField(event), format, builder)
+    }
+
+    /**
+     * Returns the field value with [format] applied. Override it e.g. to cache formatted values.
+     */
+    protected open fun getFormattedField(event: LogEvent, format: FieldFormat): String =
+        formatValue(getField(event), format)
+
     protected open fun formatValue(value: String, format: FieldFormat): String {
         val minWidth = format.minWidth ?: -1
         val maxWidth = format.maxWidth ?: Int.MAX_VALUE
@@ -73,4 +178,38 @@ abstract class FieldFormatter(
         }
     }
 
+    /**
+     * Does the same as [formatValue], but pads and truncates [value] directly in [builder] instead of creating
+     * intermediate Strings. Derived classes that override [formatValue] and set [appendsToBuffer] have to override
+     * this method too, otherwise [formatTo] calls [formatValue].
+     */
+    protected open fun appendFormattedValue(value: String, format: FieldFormat, builder: StringBuilder) {
+        val minWidth = format.minWidth ?: -1
+        val maxWidth = format.maxWidth ?: Int.MAX_VALUE
+
+        if (value.length < minWidth) {
+            when (format.pad) {
+                FieldFormat.Padding.Start -> {
+                    appendSpaces(minWidth - value.length, builder)
+                    builder.append(value)
+                }
+                FieldFormat.Padding.End -> {
+                    builder.append(value)
+                    appendSpaces(minWidth - value.length, builder)
+                }
+            }
+        } else if (value.length > maxWidth) {
+            when (format.truncate) {
+                FieldFormat.Truncate.Start -> builder.append(value, value.length - maxWidth, value.length)
+                FieldFormat.Truncate.End -> builder.append(value, 0, maxWidth)
+            }
+        } else {
+            builder.append(value)
+        }
+    }
+
+    private fun appendSpaces(count: Int, builder: StringBuilder) {
+        repeat(count) { builder.append(' ') }
+    }
+
 }
\ No newline at end of file
@@ -4,7 +4,7 @@ import net.codinux.kotlin.text.LineSeparator
 import net.codinux.log.LogEvent
 
 open class LineSeparatorFormatter(
-    protected open val lineSeparator: String = LineSeparator.System,
+    open val lineSeparator: String = LineSeparator.System,
     format: FieldFormat? = null
 ) : FieldFormatter(format) {
 
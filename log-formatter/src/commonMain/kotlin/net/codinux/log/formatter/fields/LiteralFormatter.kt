@@ -13,6 +13,10 @@ open class LiteralFormatter(
 
     override fun format(event: LogEvent) = literal
 
+    override fun formatTo(event: LogEvent, builder: StringBuilder) {
+        builder.append(literal)
+    }
+
 
     override fun toString() = "Literal: '$literal'"
 }
\ No newline at end of file
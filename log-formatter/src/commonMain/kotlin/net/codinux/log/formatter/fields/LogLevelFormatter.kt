@@ -1,10 +1,32 @@
 package net.codinux.log.formatter.fields
 
 import net.codinux.log.LogEvent
+import net.codinux.log.LogLevel
 
 open class LogLevelFormatter(format: FieldFormat? = null) : FieldFormatter(format) {
 
+    // log levels are a tiny, fixed set of values, so format (pad and truncate) each of them only once
+    private val formattedLevels: Array<String>? = format?.takeIf { it.isMinWidthOrMaxWidthSet }?.let { levelFormat ->
+        LogLevel.values().map { formatValue(it.toString(), levelFormat) }.toTypedArray()
+    }
+
+
     override fun getField(event: LogEvent): String =
         event.level.toString()
 
-}
\ No newline at end of file
+    override fun getFormattedField(event: LogEvent, format: FieldFormat): String =
+        if (formattedLevels != null && format === this.format) {
+            formattedLevels[event.level.ordinal]
+        } else {
+            super.getFormattedField(event, format)
+        }
+
+    override fun appendFormattedField(event: LogEvent, format: FieldFormat, builder: StringBuilder) {
+        if (formattedLevels != null && format === this.format) {
+            builder.append(formattedLevels[event.level.ordinal])
+        } else {
+            super.appendFormattedField(event, format, builder)
+        }
+    }
+
+}
@@ -6,4 +6,21 @@ interface LogLinePartFormatter {
 
     fun format(event: LogEvent): String
 
-}
\ No newline at end of file
+    /**
+     * `false` if this part holds state of the formatter it belongs to, like the start time of [RelativeTimeFormatter].
+     * Parsed patterns containing such parts don't get shared by [net.codinux.log.formatter.pattern.CompiledPatternCache].
+     */
+    val isShareable: Boolean
+        get() = true
+
+    /**
+     * Appends the formatted part of [event] directly to [builder], so that a whole log line can be
+     * built in one buffer without creating an intermediate String per field.
+     *
+     * Defaults to appending the result of [format], override it to avoid that String allocation.
+     */
+    fun formatTo(event: LogEvent, builder: StringBuilder) {
+        builder.append(format(event))
+    }
+
+}
@@ -1,24 +1,143 @@
 package net.codinux.log.formatter.fields
 
 import net.codinux.log.LogEvent
+import net.codinux.log.cache.BoundedCache
 import net.codinux.log.classname.ClassNameAbbreviator
 import net.codinux.log.classname.ClassNameAbbreviatorOptions
+import net.codinux.log.platform.ConcurrentMap
 
 open class LoggerNameFormatter(
     format: FieldFormat? = null,
     options: String? = null,
     protected open val abbreviator: ClassNameAbbreviator = ClassNameAbbreviator.Default,
-    protected open val abbreviatorOptions: ClassNameAbbreviatorOptions = ClassNameAbbreviatorOptions.Logback
+    protected open val abbreviatorOptions: ClassNameAbbreviatorOptions = ClassNameAbbreviatorOptions.Logback,
+    /**
+     * Caches the abbreviated, padded and truncated logger names. Set to `null` to disable caching.
+     */
+    protected open val formattedValuesCache: BoundedCache<String, String>? = BoundedCache()
 ) : FieldFormatter(format, options) {
 
+    companion object {
+        // JBoss Logging's precision format like in "%c{3.}" or "%c{1.1.~}"; not supported (yet), is ignored
+        private val JBossLoggingPrecisionRegex = Regex("[\\d.~]+")
+    }
+
+
+    /**
+     * The maximum length the logger name should be abbreviated to, resolved from first option.
+     * `null` or a value less than 0 mean: Don't abbreviate logger name.
+     */
+    protected open val maxLength: Int? = parseMaxLength(firstOption)
+
+
+    // the cache holds the final output: the abbreviated logger name, padded and truncated if format is applicable
+    private val isFormatApplicable = format?.isMinWidthOrMaxWidthSet == true
+
+    // logger names get registered rarely, so only prepare() and getPrepared() access the map, formatting never does
+    private val preparedLoggerNames = ConcurrentMap<String, PreparedLoggerName>()
+
+
+    /**
+     * Registers [loggerName] and returns a handle with the final output of this formatter for it, see
+     * [PreparedLoggerName].
+     *
+     * Call it when a logger gets created, as logger names are fixed from then on, and pass the handle to
+     * [formatTo] or [net.codinux.log.formatter.LogEventFormatter.formatEventTo] for each event of that logger.
+     * Preparing the same logger name again, also concurrently, returns the same handle. In contrast to
+     * [formattedValuesCache] registered logger names never get evicted.
+     */
+    open fun prepare(loggerName: String): PreparedLoggerName =
+        preparedLoggerNames.getOrPut(loggerName) {
+            val abbreviatedLoggerName = getAbbreviatedLoggerName(loggerName)
+            val format = format
+            val formattedLoggerName = if (format != null && isFormatApplicable) formatValue(abbreviatedLoggerName, format)
+                                      else abbreviatedLoggerName
+
+            PreparedLoggerName(this, loggerName, formattedLoggerName)
+        }
+
+    /**
+     * Returns the handle for [loggerName] if it has been registered with [prepare].
+     */
+    open fun getPrepared(loggerName: String): PreparedLoggerName? = preparedLoggerNames[loggerName]
+
+    /**
+     * Appends the output prepared for [event]'s logger to [builder] without any lookup.
+     *
+     * Falls back to [formatTo] if [loggerName] has been prepared by another formatter or for another logger, and
+     * for derived formatters as they may override how the logger name gets formatted.
+     */
+    open fun formatTo(event: LogEvent, loggerName: PreparedLoggerName, builder: StringBuilder) {
+        if (loggerName.preparedBy === this && isBuiltInFormatter && loggerName.loggerName == event.loggerName) {
+            loggerName.appendTo(builder)
+        } else {
+            formatTo(event, builder)
+        }
+    }
+
+
     override fun getField(event: LogEvent): String {
-        val length = firstOptionAsInt
+        val loggerName = event.loggerName
+        val cache = formattedValuesCache
+
+        return if (cache == null || isFormatApplicable || isAbbreviationRequired(loggerName) == false) {
+            getAbbreviatedLoggerName(loggerName)
+        } else {
+            cache.getOrPut(loggerName) { getAbbreviatedLoggerName(loggerName) }
+        }
+    }
+
+    override fun appendField(event: LogEvent, builder: StringBuilder) {
+        val loggerName = event.loggerName
 
-        return if (length == null || length < 0) {
-            event.loggerName
+        if (isAbbreviationRequired(loggerName) == false) {
+            builder.append(loggerName)
         } else {
-            abbreviator.abbreviate(event.loggerName, length, abbreviatorOptions)
+            builder.append(getField(event))
         }
     }
 
-}
\ No newline at end of file
+    override fun getFormattedField(event: LogEvent, format: FieldFormat): String {
+        val loggerName = event.loggerName
+        val cache = formattedValuesCache
+
+        return if (cache == null || format !== this.format) {
+            super.getFormattedField(event, format)
+        } else {
+            cache.getOrPut(loggerName) { formatValue(getAbbreviatedLoggerName(loggerName), format) }
+        }
+    }
+
+    override fun appendFormattedField(event: LogEvent, format: FieldFormat, builder: StringBuilder) {
+        if (formattedValuesCache == null || format !== this.format) {
+            super.appendFormattedField(event, format, builder)
+        } else {
+            builder.append(getFormattedField(event, format))
+        }
+    }
+
+    protected open fun getAbbreviatedLoggerName(loggerName: String): String {
+        val length = maxLength
+
+        return if (length == null || isAbbreviationRequired(loggerName) == false) {
+            loggerName
+        } else {
+            abbreviator.abbreviate(loggerName, length, abbreviatorOptions)
+        }
+    }
+
+    protected open fun isAbbreviationRequired(loggerName: String): Boolean {
+        val length = maxLength
+
+        return length != null && length >= 0 && loggerName.length > length
+    }
+
+
+    private fun parseMaxLength(option: String?): Int? =
+        if (option != null && option.toIntOrNull() == null && JBossLoggingPrecisionRegex.matches(option)) {
+            null
+        } else {
+            requireIntOrNull(option, "Logger name length")
+        }
+
+}
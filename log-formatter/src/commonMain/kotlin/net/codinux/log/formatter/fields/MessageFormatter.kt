@@ -7,4 +7,8 @@ open class MessageFormatter(format: FieldFormat? = null) : FieldFormatter(format
     override fun getField(event: LogEvent): String =
         event.message
 
+    override fun appendField(event: LogEvent, builder: StringBuilder) {
+        builder.append(event.message)
+    }
+
 }
\ No newline at end of file
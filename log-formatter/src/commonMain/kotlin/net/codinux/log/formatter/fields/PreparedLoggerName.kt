@@ -0,0 +1,25 @@
+package net.codinux.log.formatter.fields
+
+/**
+ * A logger name that got registered with [LoggerNameFormatter.prepare], e.g. when a logging backend creates the
+ * logger.
+ *
+ * [formattedLoggerName] is the final output of the [LoggerNameFormatter] it has been prepared by: the abbreviated
+ * logger name, padded and truncated if the formatter's [FieldFormat] requires it. A logger holding this handle
+ * passes it to [net.codinux.log.formatter.LogEventFormatter.formatEventTo], which then appends it without any
+ * lookup or abbreviation.
+ */
+class PreparedLoggerName internal constructor(
+    internal val preparedBy: LoggerNameFormatter,
+    val loggerName: String,
+    val formattedLoggerName: String
+) {
+
+    fun appendTo(builder: StringBuilder) {
+        builder.append(formattedLoggerName)
+    }
+
+
+    override fun toString() = "$loggerName -> $formattedLoggerName"
+
+}
@@ -0,0 +1,39 @@
+package net.codinux.log.formatter.fields
+
+import net.codinux.log.LogEvent
+import net.dankito.datetime.Instant
+
+/**
+ * Writes the milliseconds elapsed between [startTime] - by default the creation of the formatter - and the event,
+ * like Logback's `%relative`.
+ */
+open class RelativeTimeFormatter(
+    format: FieldFormat? = null,
+    protected open val startTime: Instant = Instant.now()
+) : FieldFormatter(format) {
+
+    protected val startTimeMillis: Long = startTime.toEpochMilliseconds()
+
+    // each formatter measures the time since its own creation
+    override val isShareable: Boolean
+        get() = false
+
+
+    override fun getField(event: LogEvent): String =
+        event.timestamp?.let { getMillisSinceStart(it).toString() } ?: FieldValueNotAvailable
+
+    override fun appendField(event: LogEvent, builder: StringBuilder) {
+        val timestamp = event.timestamp
+
+        if (timestamp != null) {
+            builder.append(getMillisSinceStart(timestamp))
+        }
+    }
+
+    protected open fun getMillisSinceStart(timestamp: Instant): Long =
+        timestamp.toEpochMilliseconds() - startTimeMillis
+
+
+    override fun toString() = "Relative time since $startTime"
+
+}
@@ -1,10 +1,36 @@
 package net.codinux.log.formatter.fields
 
 import net.codinux.log.LogEvent
+import net.codinux.log.cache.BoundedCache
 
-open class ThreadNameFormatter(format: FieldFormat? = null) : FieldFormatter(format) {
+open class ThreadNameFormatter(
+    format: FieldFormat? = null,
+    /**
+     * Caches the padded and truncated thread names. Set to `null` to disable caching.
+     */
+    protected open val formattedValuesCache: BoundedCache<String, String>? = BoundedCache()
+) : FieldFormatter(format) {
 
     override fun getField(event: LogEvent): String =
         event.threadName ?: FieldValueNotAvailable
 
-}
\ No newline at end of file
+    override fun getFormattedField(event: LogEvent, format: FieldFormat): String {
+        val threadName = event.threadName
+        val cache = formattedValuesCache
+
+        return if (threadName == null || cache == null || format !== this.format) {
+            super.getFormattedField(event, format)
+        } else {
+            cache.getOrPut(threadName) { formatValue(getField(event), format) }
+        }
+    }
+
+    override fun appendFormattedField(event: LogEvent, format: FieldFormat, builder: StringBuilder) {
+        if (event.threadName == null || formattedValuesCache == null || format !== this.format) {
+            super.appendFormattedField(event, format, builder)
+        } else {
+            builder.append(getFormattedField(event, format))
+        }
+    }
+
+}
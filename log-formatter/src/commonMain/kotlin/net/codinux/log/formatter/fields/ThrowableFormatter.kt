@@ -1,23 +1,53 @@
 package net.codinux.log.formatter.fields
 
 import net.codinux.log.LogEvent
+import net.codinux.log.stacktrace.DuplicateStackTraceTracker
 import net.codinux.log.stacktrace.StackTraceFormatter
 import net.codinux.log.stacktrace.StackTraceFormatterOptions
+import net.codinux.log.stacktrace.StackTraceShortener
 import net.codinux.log.stacktrace.StackTraceShortenerOptions
 
 open class ThrowableFormatter(
     format: FieldFormat? = null,
     options: String? = null,
     protected open val rootCauseFirst: Boolean = false,
+    /**
+     * Opt-in: Summarizes stack traces that recur within a time window instead of outputting them in full again,
+     * see [DuplicateStackTraceTracker]. Recognizing duplicates is cheap only on the JVM, on other platforms each
+     * stack trace gets parsed for it.
+     */
+    protected open val duplicateStackTraceTracker: DuplicateStackTraceTracker? = null,
 ) : FieldFormatter(format, options) {
 
-    protected open val stackTraceFormatter: StackTraceFormatter by lazy {
+    /**
+     * Resolved from first option, which may also be Logback's `full` (all frames) or `short` (one frame).
+     */
+    protected open val maxFramesPerThrowable: Int? = when (firstOption?.trim()) {
+        "full" -> null
+        "short" -> 1
+        else -> requireIntOrNull(firstOption, "Max frames per throwable")
+    }
+
+    protected open val maxNestedThrowables: Int? = requireIntOrNull(secondOption, "Max nested throwables")
+
+    protected open val stackTraceFormatter: StackTraceFormatter =
         StackTraceFormatter(StackTraceFormatterOptions(addLineSeparatorAtEnd = true),
-            StackTraceShortenerOptions(maxFramesPerThrowable = firstOptionAsInt, maxNestedThrowables = secondOptionAsInt, rootCauseFirst = rootCauseFirst)) }
+            StackTraceShortener(StackTraceShortenerOptions(maxFramesPerThrowable = maxFramesPerThrowable, maxNestedThrowables = maxNestedThrowables, rootCauseFirst = rootCauseFirst)),
+            duplicateStackTraceTracker = duplicateStackTraceTracker)
 
 
     override fun getField(event: LogEvent): String =
         event.exception?.let { stackTraceFormatter.format(it) }
             ?: FieldValueNotAvailable
 
-}
\ No newline at end of file
+    override fun appendField(event: LogEvent, builder: StringBuilder) {
+        val exception = event.exception
+
+        if (exception == null) {
+            builder.append(FieldValueNotAvailable)
+        } else {
+            stackTraceFormatter.formatTo(exception, builder) // streams the stack trace without creating a String first
+        }
+    }
+
+}
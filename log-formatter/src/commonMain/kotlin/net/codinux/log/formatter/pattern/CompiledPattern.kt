@@ -0,0 +1,23 @@
+package net.codinux.log.formatter.pattern
+
+import net.codinux.log.formatter.fields.LogLinePartFormatter
+
+/**
+ * The result of parsing a log pattern. It's immutable, so it can be shared between formatters and threads.
+ */
+class CompiledPattern(
+    val pattern: String,
+    parts: List<LogLinePartFormatter>
+) {
+
+    val parts: List<LogLinePartFormatter> = parts.toList()
+
+    /**
+     * `true` if all [parts] may be shared between formatters, see [LogLinePartFormatter.isShareable].
+     */
+    val isShareable: Boolean = this.parts.all { it.isShareable }
+
+
+    override fun toString() = "'$pattern' with ${parts.size} parts"
+
+}
@@ -0,0 +1,49 @@
+package net.codinux.log.formatter.pattern
+
+import net.codinux.log.cache.BoundedCache
+
+/**
+ * Caches parsed patterns, so that formatters for the same pattern, e.g. one per tenant or appender,
+ * don't parse it again and share the same field formatter instances.
+ *
+ * Entries are keyed by the pattern and the [PatternParser] (which includes its custom fields parser).
+ * Patterns with parts that hold per-formatter state, like `%relative`, get parsed on each call and are not cached,
+ * see [CompiledPattern.isShareable].
+ * The cache is bounded, for the eviction strategy see [BoundedCache].
+ */
+open class CompiledPatternCache(maxSize: Int = DefaultMaxSize) {
+
+    companion object {
+        const val DefaultMaxSize = 64
+
+        val Default by lazy { CompiledPatternCache() }
+    }
+
+
+    private data class Key(val pattern: String, val parser: PatternParser)
+
+
+    private val cache = BoundedCache<Key, CompiledPattern>(maxSize)
+
+
+    open fun getOrCompile(pattern: String, parser: PatternParser = PatternParser.Default): CompiledPattern {
+        val key = Key(pattern, parser)
+
+        cache[key]?.let { return it }
+
+        val compiled = CompiledPattern(pattern, parser.parse(pattern))
+        if (compiled.isShareable) {
+            cache.put(key, compiled)
+        }
+
+        return compiled
+    }
+
+    open fun clear() {
+        cache.clear()
+    }
+
+
+    override fun toString() = "CompiledPatternCache: $cache"
+
+}
@@ -0,0 +1,153 @@
+package net.codinux.log.formatter.pattern
+
+import net.codinux.log.formatter.fields.FieldFormat
+
+/**
+ * Splits a log pattern like `%-5level [%logger{36}] %msg%n` in a single pass into literal text and field tokens.
+ *
+ * The field syntax is `%[-][minWidth][.[-]maxWidth]fieldSpecifier[{options}]`. `%%` gets written as a literal `%`.
+ *
+ * @throws PatternParseException with the exact position of the error if the pattern is invalid.
+ */
+open class PatternLexer {
+
+    companion object {
+        const val FieldStart = '%'
+
+        const val OptionsStart = '{'
+
+        const val OptionsEnd = '}'
+
+        val Default by lazy { PatternLexer() }
+    }
+
+
+    open fun tokenize(pattern: String): List<PatternToken> {
+        val tokens = mutableListOf<PatternToken>()
+        val literal = StringBuilder()
+        var literalStartIndex = 0
+        var index = 0
+
+        while (index < pattern.length) {
+            val char = pattern[index]
+
+            if (char != FieldStart) {
+                if (literal.isEmpty()) {
+                    literalStartIndex = index
+                }
+                literal.append(char)
+                index++
+            } else if (index + 1 < pattern.length && pattern[index + 1] == FieldStart) { // escaped '%'
+                if (literal.isEmpty()) {
+                    literalStartIndex = index
+                }
+                literal.append(FieldStart)
+                index += 2
+            } else {
+                if (literal.isNotEmpty()) {
+                    tokens.add(PatternToken.Literal(literal.toString(), literalStartIndex))
+                    literal.clear()
+                }
+
+                index = readField(pattern, index, tokens)
+            }
+        }
+
+        if (literal.isNotEmpty()) {
+            tokens.add(PatternToken.Literal(literal.toString(), literalStartIndex))
+        }
+
+        return tokens
+    }
+
+    /**
+     * Reads the field starting with '%' at [startIndex], adds it to [tokens] and returns the index after the field.
+     */
+    protected open fun readField(pattern: String, startIndex: Int, tokens: MutableList<PatternToken>): Int {
+        var index = startIndex + 1
+
+        val padEnd = index < pattern.length && pattern[index] == '-'
+        if (padEnd) {
+            index++
+        }
+        val minWidthEnd = indexAfterDigits(pattern, index)
+        if (padEnd && minWidthEnd == index) {
+            throw PatternParseException(pattern, index, "Expected minimum field width after '-'")
+        }
+        val minWidth = parseWidth(pattern, index, minWidthEnd)
+        index = minWidthEnd
+
+        var truncateEnd = false
+        var maxWidth: Int? = null
+        if (index < pattern.length && pattern[index] == '.') {
+            index++
+            truncateEnd = index < pattern.length && pattern[index] == '-'
+            if (truncateEnd) {
+                index++
+            }
+            val maxWidthEnd = indexAfterDigits(pattern, index)
+            if (maxWidthEnd == index) {
+                throw PatternParseException(pattern, index, "Expected maximum field width after '.'")
+            }
+            maxWidth = parseWidth(pattern, index, maxWidthEnd)
+            index = maxWidthEnd
+        }
+
+        val fieldSpecifierStart = index
+        while (index < pattern.length && isWordChar(pattern[index])) {
+            index++
+        }
+        if (index == fieldSpecifierStart) {
+            throw PatternParseException(pattern, index, "Expected field specifier after '%'")
+        }
+        val fieldSpecifier = pattern.substring(fieldSpecifierStart, index)
+
+        var options: String? = null
+        if (index < pattern.length && pattern[index] == OptionsStart) {
+            val optionsEnd = pattern.indexOf(OptionsEnd, index + 1)
+            if (optionsEnd == -1) {
+                throw PatternParseException(pattern, index, "Missing closing '$OptionsEnd' for options of field '$fieldSpecifier'")
+            }
+            options = pattern.substring(index + 1, optionsEnd).takeUnless { it.isBlank() }
+            index = optionsEnd + 1
+        }
+
+        val format = if (padEnd == false && minWidth == null && truncateEnd == false && maxWidth == null) {
+            null
+        } else {
+            FieldFormat(
+                minWidth = minWidth,
+                maxWidth = maxWidth,
+                pad = if (padEnd) FieldFormat.Padding.End else FieldFormat.Padding.Start,
+                truncate = if (truncateEnd) FieldFormat.Truncate.End else FieldFormat.Truncate.Start
+            )
+        }
+
+        tokens.add(PatternToken.Field(fieldSpecifier, format, options, startIndex))
+
+        return index
+    }
+
+
+    private fun indexAfterDigits(pattern: String, startIndex: Int): Int {
+        var index = startIndex
+        while (index < pattern.length && pattern[index] in '0'..'9') {
+            index++
+        }
+
+        return index
+    }
+
+    private fun parseWidth(pattern: String, startIndex: Int, endIndex: Int): Int? =
+        if (startIndex == endIndex) {
+            null
+        } else {
+            pattern.substring(startIndex, endIndex).toIntOrNull()
+                ?: throw PatternParseException(pattern, startIndex, "Field width is too large")
+        }
+
+    // same characters as regex' \w
+    private fun isWordChar(char: Char) =
+        char in 'a'..'z' || char in 'A'..'Z' || char in '0'..'9' || char == '_'
+
+}
@@ -0,0 +1,10 @@
+package net.codinux.log.formatter.pattern
+
+/**
+ * Thrown if a log pattern is syntactically invalid. [index] is the position in [pattern] where the error was detected.
+ */
+open class PatternParseException(
+    val pattern: String,
+    val index: Int,
+    val reason: String
+) : IllegalArgumentException("$reason at index $index of pattern '$pattern'")
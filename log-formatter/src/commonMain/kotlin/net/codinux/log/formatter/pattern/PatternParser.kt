@@ -4,8 +4,13 @@ import net.codinux.log.formatter.fields.*
 import net.codinux.log.stacktrace.StackTraceFormatterOptions
 
 open class PatternParser(
-    protected open val parsePatternRegex: Regex = DefaultParsePatternRegex,
-    protected open val customFieldsParser: ((fieldSpecifier: String, format: FieldFormat?, options: String?) -> FieldFormatter?)? = null
+    /**
+     * Only for compatibility: If set, patterns get parsed with this regex instead of with [lexer].
+     * Prefer the lexer, it's faster, supports `%%` escapes and reports the position of syntax errors.
+     */
+    protected open val parsePatternRegex: Regex? = null,
+    protected open val customFieldsParser: ((fieldSpecifier: String, format: FieldFormat?, options: String?) -> FieldFormatter?)? = null,
+    protected open val lexer: PatternLexer = PatternLexer.Default
 ) {
 
     companion object {
@@ -34,6 +39,20 @@ open class PatternParser(
 
 
     open fun parse(pattern: String): List<LogLinePartFormatter> {
+        val regex = parsePatternRegex
+        if (regex != null) {
+            return parseWithRegex(pattern, regex)
+        }
+
+        return lexer.tokenize(pattern).map { token ->
+            when (token) {
+                is PatternToken.Literal -> LiteralFormatter(token.text)
+                is PatternToken.Field -> mapFieldFormatter(token.fieldSpecifier, token.format, token.options)
+            }
+        }
+    }
+
+    protected open fun parseWithRegex(pattern: String, parsePatternRegex: Regex): List<LogLinePartFormatter> {
         val matches = parsePatternRegex.findAll(pattern).toList()
 
         return matches.map { match ->
@@ -51,6 +70,32 @@ open class PatternParser(
     }
 
 
+    /**
+     * Two PatternParsers are equal if they parse patterns the same way, that is if they are of class PatternParser
+     * and use the same regex, lexer and custom fields parser instance. Subclasses are only equal to themselves.
+     */
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other == null || this::class != PatternParser::class || other::class != PatternParser::class) return false
+
+        other as PatternParser
+
+        return parsePatternRegex?.pattern == other.parsePatternRegex?.pattern
+                && lexer == other.lexer
+                && customFieldsParser === other.customFieldsParser
+    }
+
+    override fun hashCode(): Int =
+        if (this::class != PatternParser::class) {
+            super.hashCode()
+        } else {
+            var result = parsePatternRegex?.pattern?.hashCode() ?: 0
+            result = 31 * result + lexer.hashCode()
+            result = 31 * result + (customFieldsParser?.hashCode() ?: 0)
+            result
+        }
+
+
     protected open fun mapFieldFormatter(fieldSpecifier: String, format: FieldFormat?, options: String?): FieldFormatter = when (fieldSpecifier) {
         "level", "le", "l" -> LogLevelFormatter(format)
         "logger", "lo", "c" -> LoggerNameFormatter(format, options)
@@ -58,6 +103,11 @@ open class PatternParser(
         "exception", "throwable", "ex", "e" -> ThrowableFormatter(format, options) // other values for first option would be "short" and "full", but "full" is senseful and "short" is equal to '1'
         "rootException", "rEx" -> ThrowableFormatter(format, options, true) // other values for first option would be "short" and "full", but "full" is senseful and "short" is equal to '1'
         "date", "d" -> DateTimeFormatter(format, options) // TODO: third option is locale
+        "epochSeconds" -> EpochTimestampFormatter(format, EpochTimeUnit.Seconds)
+        "epochMillis" -> EpochTimestampFormatter(format, EpochTimeUnit.Millis)
+        "epochMicros" -> EpochTimestampFormatter(format, EpochTimeUnit.Micros)
+        "epochNanos" -> EpochTimestampFormatter(format, EpochTimeUnit.Nanos)
+        "relative", "r" -> RelativeTimeFormatter(format)
         "thread", "th", "t" -> ThreadNameFormatter(format)
         "n" -> LineSeparatorFormatter(format = format)
         else -> customFieldsParser?.invoke(fieldSpecifier, format, options)
@@ -0,0 +1,23 @@
+package net.codinux.log.formatter.pattern
+
+import net.codinux.log.formatter.fields.FieldFormat
+
+sealed class PatternToken {
+
+    abstract val startIndex: Int
+
+
+    class Literal(val text: String, override val startIndex: Int) : PatternToken() {
+        override fun toString() = "Literal '$text'"
+    }
+
+    class Field(
+        val fieldSpecifier: String,
+        val format: FieldFormat?,
+        val options: String?,
+        override val startIndex: Int
+    ) : PatternToken() {
+        override fun toString() = "Field '$fieldSpecifier' ${format ?: ""} ${options ?: ""}"
+    }
+
+}
@@ -0,0 +1,122 @@
+package net.codinux.log.formatter.plan
+
+import net.codinux.log.LogEvent
+import net.codinux.log.formatter.fields.*
+
+/**
+ * Immutable, pre-compiled representation of a list of [LogLinePartFormatter]s.
+ *
+ * Everything that only depends on the fields and not on the [LogEvent] is done once when creating the plan:
+ * - adjacent [LiteralFormatter]s and [LineSeparatorFormatter]s are merged into one precomputed constant,
+ * - for the built-in [FieldFormatter]s without a [FieldFormat] with min or max width set, formatting is skipped
+ *   without checking [FieldFormat.isMinWidthOrMaxWidthSet] on each event. All other parts get formatted with
+ *   [LogLinePartFormatter.formatTo].
+ */
+class FormatPlan(parts: List<LogLinePartFormatter>) {
+
+    private val steps: Array<PlanStep> = compile(parts).toTypedArray()
+
+    val countSteps: Int
+        get() = steps.size
+
+
+    fun format(event: LogEvent): String {
+        val builder = StringBuilder()
+
+        formatTo(event, builder)
+
+        return builder.toString()
+    }
+
+    fun formatTo(event: LogEvent, builder: StringBuilder) {
+        for (step in steps) {
+            step.formatTo(event, builder)
+        }
+    }
+
+    /**
+     * Same as [formatTo], but the [LoggerNameFormatter] that prepared [loggerName] appends its prepared output.
+     */
+    fun formatTo(event: LogEvent, loggerName: PreparedLoggerName?, builder: StringBuilder) {
+        if (loggerName == null) {
+            formatTo(event, builder)
+        } else {
+            for (step in steps) {
+                step.formatTo(event, loggerName, builder)
+            }
+        }
+    }
+
+
+    private fun compile(parts: List<LogLinePartFormatter>): List<PlanStep> {
+        val steps = mutableListOf<PlanStep>()
+        val pendingConstant = StringBuilder()
+
+        parts.forEach { part ->
+            val constant = getConstantValue(part)
+
+            if (constant != null) {
+                pendingConstant.append(constant)
+            } else {
+                if (pendingConstant.isNotEmpty()) {
+                    steps.add(ConstantStep(pendingConstant.toString().toCharArray()))
+                    pendingConstant.clear()
+                }
+
+                steps.add(createStep(part))
+            }
+        }
+
+        if (pendingConstant.isNotEmpty()) {
+            steps.add(ConstantStep(pendingConstant.toString().toCharArray()))
+        }
+
+        return steps
+    }
+
+    /**
+     * Only the exact built-in classes are merged, derived classes may override how they are formatted.
+     */
+    private fun getConstantValue(part: LogLinePartFormatter): String? =
+        if (part::class == LiteralFormatter::class) {
+            (part as LiteralFormatter).literal
+        } else if (part::class == LineSeparatorFormatter::class && isFormatApplicable(part as LineSeparatorFormatter) == false) {
+            part.lineSeparator
+        } else {
+            null
+        }
+
+    /**
+     * Logger names get wrapped in a [LoggerNameStep], so that [formatTo] can pass a [PreparedLoggerName] to them.
+     */
+    private fun createStep(part: LogLinePartFormatter): PlanStep =
+        if (part is LoggerNameFormatter) {
+            LoggerNameStep(part, createFieldStep(part))
+        } else {
+            createFieldStep(part)
+        }
+
+    /**
+     * Only for the exact built-in classes the field value gets appended directly, derived classes may override
+     * [LogLinePartFormatter.format] and other methods the fast steps don't call.
+     */
+    private fun createFieldStep(part: LogLinePartFormatter): PlanStep =
+        if (part is FieldFormatter && part.isBuiltInFormatter) {
+            val format = part.format
+
+            if (format != null && isFormatApplicable(part)) {
+                FormattedFieldStep(part, format)
+            } else {
+                UnformattedFieldStep(part)
+            }
+        } else {
+            PartStep(part)
+        }
+
+    private fun isFormatApplicable(field: FieldFormatter): Boolean =
+        field.format?.isMinWidthOrMaxWidthSet == true
+
+
+    override fun toString() = "${steps.size} steps: ${steps.joinToString()}"
+
+}
@@ -0,0 +1,72 @@
+package net.codinux.log.formatter.plan
+
+import net.codinux.log.LogEvent
+import net.codinux.log.formatter.fields.FieldFormat
+import net.codinux.log.formatter.fields.FieldFormatter
+import net.codinux.log.formatter.fields.LogLinePartFormatter
+import net.codinux.log.formatter.fields.LoggerNameFormatter
+import net.codinux.log.formatter.fields.PreparedLoggerName
+
+/**
+ * A single step of a [FormatPlan]. Each implementation calls only one target type, so that the
+ * call sites stay monomorphic.
+ */
+internal sealed class PlanStep {
+
+    abstract fun formatTo(event: LogEvent, builder: StringBuilder)
+
+    open fun formatTo(event: LogEvent, loggerName: PreparedLoggerName, builder: StringBuilder) {
+        formatTo(event, builder)
+    }
+
+}
+
+
+internal class ConstantStep(private val chars: CharArray) : PlanStep() {
+
+    override fun formatTo(event: LogEvent, builder: StringBuilder) {
+        builder.appendRange(chars, 0, chars.size)
+    }
+
+    override fun toString() = "Constant: '${chars.concatToString()}'"
+}
+
+internal class UnformattedFieldStep(private val field: FieldFormatter) : PlanStep() {
+
+    override fun formatTo(event: LogEvent, builder: StringBuilder) {
+        field.appendFieldValue(event, builder)
+    }
+
+    override fun toString() = "Field: $field"
+}
+
+internal class FormattedFieldStep(private val field: FieldFormatter, private val format: FieldFormat) : PlanStep() {
+
+    override fun formatTo(event: LogEvent, builder: StringBuilder) {
+        field.appendFormattedFieldValue(event, format, builder)
+    }
+
+    override fun toString() = "Formatted field: $field ($format)"
+}
+
+internal class PartStep(private val part: LogLinePartFormatter) : PlanStep() {
+
+    override fun formatTo(event: LogEvent, builder: StringBuilder) {
+        part.formatTo(event, builder)
+    }
+
+    override fun toString() = "Part: $part"
+}
+
+internal class LoggerNameStep(private val field: LoggerNameFormatter, private val step: PlanStep) : PlanStep() {
+
+    override fun formatTo(event: LogEvent, builder: StringBuilder) {
+        step.formatTo(event, builder)
+    }
+
+    override fun formatTo(event: LogEvent, loggerName: PreparedLoggerName, builder: StringBuilder) {
+        field.formatTo(event, loggerName, builder)
+    }
+
+    override fun toString() = "Logger name: $step"
+}
@@ -0,0 +1,21 @@
+package net.codinux.log.platform
+
+/**
+ * A map that can safely be read and written from multiple threads.
+ *
+ * Meant for rarely written registries, on Native each write copies the map.
+ */
+expect class ConcurrentMap<K : Any, V : Any>() {
+
+    operator fun get(key: K): V?
+
+    /**
+     * Returns the value for [key] or, if there is none, atomically stores and returns the one created by
+     * [defaultValue], so concurrent callers always get the same value.
+     *
+     * On Native [defaultValue] doesn't get called under a lock, so concurrent callers may call it for the same key,
+     * but only the first stored value gets returned to all of them.
+     */
+    fun getOrPut(key: K, defaultValue: () -> V): V
+
+}
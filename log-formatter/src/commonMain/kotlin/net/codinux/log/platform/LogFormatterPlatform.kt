@@ -2,6 +2,9 @@ package net.codinux.log.platform
 
 import net.codinux.log.classname.ClassInfo
 import net.codinux.log.classname.ClassNameComponents
+import net.codinux.log.formatter.datetime.TimeZoneRules
+import net.codinux.log.stacktrace.StackTrace
+import net.codinux.log.stacktrace.StackTraceFingerprint
 import kotlin.reflect.KClass
 
 expect object LogFormatterPlatform {
@@ -18,4 +21,23 @@ expect object LogFormatterPlatform {
      */
     fun <T : Any> getClassInfo(forClass: KClass<T>): ClassInfo
 
+    /**
+     * Returns the rules of time zone [zoneId] or `null` if it's unknown.
+     * Only implemented on JVM, on all other platforms only UTC and the system time zone are supported.
+     */
+    fun getTimeZoneRules(zoneId: String): TimeZoneRules?
+
+    /**
+     * Extracts the stack trace of [throwable] from its structured stack trace data or returns `null` if that's not
+     * available on this platform and the stack trace string has to be parsed.
+     * Only implemented on JVM, where stack frames, cause and suppressed exceptions can be accessed directly.
+     */
+    fun extractStackTrace(throwable: Throwable): StackTrace?
+
+    /**
+     * Returns a fingerprint of the stack trace of [throwable] or `null` if it cannot be computed cheaply on this
+     * platform. Only implemented on JVM.
+     */
+    fun getStackTraceFingerprint(throwable: Throwable): StackTraceFingerprint?
+
 }
\ No newline at end of file
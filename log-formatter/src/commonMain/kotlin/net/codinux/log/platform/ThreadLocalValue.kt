@@ -0,0 +1,13 @@
+package net.codinux.log.platform
+
+/**
+ * Holds one value per thread, created lazily by [initializer] on first access from a thread.
+ *
+ * On platforms without thread locals (JS and WASM), on Native (where the values of terminated threads can't be
+ * removed) and for threads for which thread locals are not senseful (virtual threads on the JVM), [get] returns `null`.
+ */
+expect class ThreadLocalValue<T : Any>(initializer: () -> T) {
+
+    fun get(): T?
+
+}
@@ -0,0 +1,91 @@
+package net.codinux.log.stacktrace
+
+import net.codinux.log.cache.BoundedCache
+import kotlin.concurrent.Volatile
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.TimeMark
+import kotlin.time.TimeSource
+
+/**
+ * Remembers the [StackTraceFingerprint]s of recently formatted stack traces, so that [StackTraceFormatter] can
+ * summarize stack traces that recur within [window] instead of outputting them in full again, e.g. during an outage.
+ *
+ * The window starts with the first occurrence of a stack trace. After it has passed, the next occurrence is output in
+ * full again, so that each window contains the full stack trace the summaries refer to.
+ *
+ * Stack traces are looked up by [StackTraceFingerprint.hash], but only count as duplicates if their
+ * [StackTraceFingerprint.frameIdentity] is the same, so that different stack traces with the same hash are never
+ * reported as duplicates of each other.
+ *
+ * At most [maxSize] stack traces are remembered, see [BoundedCache] for the eviction strategy. Under concurrent
+ * access the occurrence counts are not exact.
+ *
+ * On the JVM the fingerprint is computed cheaply from the structured stack trace data. On all other platforms
+ * [StackTraceFormatter] has to parse the stack trace string first and computes the fingerprint from the extracted
+ * [StackTrace], see [StackTraceFingerprint.of], which costs about as much as formatting the stack trace.
+ */
+open class DuplicateStackTraceTracker(
+    val window: Duration = DefaultWindow,
+    maxSize: Int = DefaultMaxSize,
+    protected val timeSource: TimeSource = TimeSource.Monotonic
+) {
+
+    companion object {
+        val DefaultWindow = 1.minutes
+
+        const val DefaultMaxSize = 256
+    }
+
+
+    class Occurrence(
+        /**
+         * Identifier of the stack trace, the hexadecimal [StackTraceFingerprint.hash], like "3f2a9c0d1e4b5a67".
+         */
+        val id: String,
+        /**
+         * How often the stack trace has been seen in the current window, including this occurrence.
+         */
+        val count: Int
+    ) {
+        val isFirst: Boolean
+            get() = count == 1
+
+        override fun toString() = "#$id seen $count times"
+    }
+
+    private class Entry(val id: String, val frameIdentity: List<Any>, val firstSeen: TimeMark) {
+        @Volatile
+        var count: Int = 1
+    }
+
+
+    private val entries = BoundedCache<Long, Entry>(maxSize)
+
+
+    open fun registerOccurrence(fingerprint: StackTraceFingerprint): Occurrence {
+        val hash = fingerprint.hash
+        val entry = entries[hash]
+
+        return if (entry == null || entry.frameIdentity != fingerprint.frameIdentity || entry.firstSeen.elapsedNow() >= window) {
+            val id = createId(hash)
+            entries.put(hash, Entry(id, fingerprint.frameIdentity, timeSource.markNow()))
+
+            Occurrence(id, 1)
+        } else {
+            val count = entry.count + 1
+            entry.count = count
+
+            Occurrence(entry.id, count)
+        }
+    }
+
+    // derived from the full hash, so that the ids of different stack traces practically never collide
+    protected open fun createId(hash: Long): String =
+        hash.toULong().toString(16).padStart(16, '0')
+
+    fun clear() {
+        entries.clear()
+    }
+
+}
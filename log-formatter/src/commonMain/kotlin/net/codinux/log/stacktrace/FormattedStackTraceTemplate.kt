@@ -0,0 +1,55 @@
+package net.codinux.log.stacktrace
+
+/**
+ * A formatted stack trace in which the message lines have been replaced by placeholders, so that it can be reused for
+ * Throwables with the same [StackTraceFingerprint] but different messages.
+ *
+ * [segments] are the formatted parts between the message lines, `messageIndices[i]` is the index in
+ * [StackTraceFingerprint.messageLines] of the message line that follows `segments[i]`.
+ */
+internal class FormattedStackTraceTemplate(
+    private val segments: Array<String>,
+    private val messageIndices: IntArray
+) {
+
+    companion object {
+        // from Unicode's private use area, so it doesn't occur in stack traces
+        private const val PlaceholderMarker = '\uE000'
+
+        fun placeholder(messageIndex: Int): String = "$PlaceholderMarker$messageIndex$PlaceholderMarker"
+
+        fun parse(formattedStackTrace: String): FormattedStackTraceTemplate {
+            val segments = mutableListOf<String>()
+            val messageIndices = mutableListOf<Int>()
+            var segmentStart = 0
+
+            while (true) {
+                val placeholderStart = formattedStackTrace.indexOf(PlaceholderMarker, segmentStart)
+                if (placeholderStart == -1) {
+                    break
+                }
+
+                val placeholderEnd = formattedStackTrace.indexOf(PlaceholderMarker, placeholderStart + 1)
+                segments.add(formattedStackTrace.substring(segmentStart, placeholderStart))
+                messageIndices.add(formattedStackTrace.substring(placeholderStart + 1, placeholderEnd).toInt())
+
+                segmentStart = placeholderEnd + 1
+            }
+
+            segments.add(formattedStackTrace.substring(segmentStart))
+
+            return FormattedStackTraceTemplate(segments.toTypedArray(), messageIndices.toIntArray())
+        }
+    }
+
+
+    fun appendTo(builder: Appendable, messageLines: List<String>) {
+        messageIndices.forEachIndexed { index, messageIndex ->
+            builder.append(segments[index])
+            builder.append(messageLines.getOrElse(messageIndex) { "" })
+        }
+
+        builder.append(segments[segments.size - 1])
+    }
+
+}
@@ -0,0 +1,157 @@
+package net.codinux.log.stacktrace
+
+import net.codinux.log.encoding.Utf8Encoder
+import kotlin.math.max
+
+/**
+ * Appends to [target] till [maxLength] (in [unit]) is exceeded. The output is the same as appending everything and
+ * cropping it afterwards: If the appended text exceeds [maxLength], it gets cut so that [ellipsis] fits in and then
+ * ellipsis gets appended. Everything appended after that is ignored, check [isMaxLengthExceeded] to stop rendering.
+ *
+ * With [StringLengthUnit.Utf8Bytes] a high surrogate is counted with the 4 bytes of the surrogate pair it starts, so
+ * that a pair doesn't get split when it's appended char by char. The low surrogate following it then counts 0 bytes.
+ *
+ * Text that would have to be replaced by the ellipsis can only be held back till it's known if [maxLength] gets
+ * exceeded, so [finish] has to be called after the last append.
+ */
+internal class LengthLimitedAppendable(
+    private val target: Appendable,
+    private val maxLength: Int,
+    private val unit: StringLengthUnit,
+    private val ellipsis: String,
+    private val utf8Encoder: Utf8Encoder
+) : Appendable {
+
+    private val ellipsisLength = if (unit == StringLengthUnit.Chars) ellipsis.length else utf8Encoder.encodedLength(ellipsis)
+
+    // text up to this length gets written to target directly, as it's never replaced by the ellipsis
+    private val directlyWrittenLength = max(0, maxLength - ellipsisLength)
+
+    private var length = 0
+
+    private var endsWithHighSurrogate = false
+
+    private val heldBack = StringBuilder()
+
+    var isMaxLengthExceeded: Boolean = false
+        private set
+
+
+    override fun append(value: Char): Appendable {
+        if (isMaxLengthExceeded == false) {
+            append(value, if (unit == StringLengthUnit.Chars) 1 else utf8LengthOf(value))
+        }
+
+        return this
+    }
+
+    override fun append(value: CharSequence?): Appendable {
+        val chars = value ?: "null"
+
+        return append(chars, 0, chars.length)
+    }
+
+    override fun append(value: CharSequence?, startIndex: Int, endIndex: Int): Appendable {
+        if (isMaxLengthExceeded) {
+            return this
+        }
+
+        val chars = value ?: "null"
+        val segmentLength = lengthOf(chars, startIndex, endIndex)
+
+        if (length + segmentLength <= directlyWrittenLength) {
+            target.append(chars, startIndex, endIndex)
+            length += segmentLength
+            endsWithHighSurrogate = endIndex > startIndex && chars[endIndex - 1].isHighSurrogate()
+        } else {
+            var index = startIndex
+            while (index < endIndex && isMaxLengthExceeded == false) {
+                val countChars = if (chars[index].isHighSurrogate() && index + 1 < endIndex && chars[index + 1].isLowSurrogate()) 2 else 1
+
+                append(chars, index, index + countChars, lengthOf(chars, index, index + countChars))
+
+                index += countChars
+            }
+        }
+
+        return this
+    }
+
+    private fun append(char: Char, units: Int) {
+        if (length + units > maxLength) {
+            appendEllipsis()
+        } else {
+            if (length + units <= directlyWrittenLength) target.append(char) else heldBack.append(char)
+            length += units
+            endsWithHighSurrogate = char.isHighSurrogate()
+        }
+    }
+
+    private fun append(chars: CharSequence, startIndex: Int, endIndex: Int, units: Int) {
+        if (length + units > maxLength) {
+            appendEllipsis()
+        } else {
+            if (length + units <= directlyWrittenLength) target.append(chars, startIndex, endIndex) else heldBack.append(chars, startIndex, endIndex)
+            length += units
+            endsWithHighSurrogate = chars[endIndex - 1].isHighSurrogate()
+        }
+    }
+
+    private fun appendEllipsis() {
+        isMaxLengthExceeded = true
+        heldBack.setLength(0)
+
+        if (maxLength > ellipsisLength) {
+            target.append(ellipsis)
+        } else if (unit == StringLengthUnit.Utf8Bytes) { // maxLength less than ellipsis byte count
+            target.append(ellipsis, 0, utf8Encoder.indexOfMaxEncodedLength(ellipsis, maxLength))
+        } else { // maxLength shorter than ellipsis string
+            target.append(ellipsis, 0, maxLength)
+        }
+    }
+
+    fun finish() {
+        if (isMaxLengthExceeded == false && heldBack.isNotEmpty()) {
+            target.append(heldBack)
+            heldBack.setLength(0)
+        }
+    }
+
+
+    private fun lengthOf(chars: CharSequence, startIndex: Int, endIndex: Int): Int {
+        if (unit == StringLengthUnit.Chars || startIndex == endIndex) {
+            return endIndex - startIndex
+        }
+
+        var length = utf8Encoder.encodedLength(chars, startIndex, endIndex)
+
+        // surrogate pairs spanning appends, the encoder counts each half as an unpaired surrogate of 1 byte
+        if (endsWithHighSurrogate && chars[startIndex].isLowSurrogate()) {
+            length -= 1
+        }
+        if (chars[endIndex - 1].isHighSurrogate()) {
+            length += 3
+        }
+
+        return length
+    }
+
+    private fun utf8LengthOf(char: Char): Int {
+        val code = char.code
+
+        return if (code < 0x80) {
+            1
+        } else if (code < 0x800) {
+            2
+        } else if (char.isSurrogate() == false) {
+            3
+        } else if (char.isHighSurrogate()) {
+            4 // counts for the whole surrogate pair
+        } else if (endsWithHighSurrogate) {
+            0 // already counted with its high surrogate
+        } else {
+            1 // unpaired surrogates get replaced by '?'
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package net.codinux.log.stacktrace
+
+/**
+ * A [StackFrame] parsed from a stack trace string. It only holds the original stack frame line, trimmed [line] and
+ * [originalIndent] are created when they get accessed.
+ */
+open class ParsedStackFrame(protected val stackFrameLine: String) : StackFrame() {
+
+    override fun renderLine(): String =
+        stackFrameLine.trim() // remove original indent from stack frame line
+
+    override fun renderOriginalIndent(): String =
+        stackFrameLine.substringBefore(line, "")
+
+    override fun renderOriginalLine(): String = stackFrameLine
+
+
+    // line and originalIndent are derived from stackFrameLine, so there's no need to render them for comparison
+    override fun equals(other: Any?): Boolean =
+        if (other is ParsedStackFrame && other::class == this::class) stackFrameLine == other.stackFrameLine
+        else super.equals(other)
+
+    override fun hashCode(): Int = stackFrameLine.hashCode()
+
+}
@@ -2,11 +2,104 @@ package net.codinux.log.stacktrace
 
 /**
  * Represents a function/method call instance on the call stack.
+ *
+ * Subclasses can be backed by structured data or by the original stack trace line and only render [line],
+ * [originalIndent] and [originalLine] when they are accessed, e.g. when [StackTraceFormatter] emits the frame.
+ * So frames that get truncated by [StackTraceShortenerOptions.maxFramesPerThrowable] cost no String allocations.
+ *
+ * The rendered values are cached without synchronization. If multiple threads access a value for the first time
+ * concurrently, each of them may render it, which is harmless as rendering always returns the same value.
  */
-data class StackFrame(
-    val line: String,
-    val originalIndent: String = "",
-    val originalLine: String = line
-) {
+open class StackFrame protected constructor() {
+
+    constructor(line: String, originalIndent: String = "", originalLine: String = line) : this() {
+        this.renderedLine = line
+        this.renderedOriginalIndent = originalIndent
+        this.renderedOriginalLine = originalLine
+    }
+
+
+    private var renderedLine: String? = null
+
+    private var renderedOriginalIndent: String? = null
+
+    private var renderedOriginalLine: String? = null
+
+
+    /**
+     * The stack frame without indent, e.g. "at org.example.UserService.createUser(UserService.kt:42)".
+     */
+    val line: String
+        get() = renderedLine ?: renderLine().also { renderedLine = it }
+
+    val originalIndent: String
+        get() = renderedOriginalIndent ?: renderOriginalIndent().also { renderedOriginalIndent = it }
+
+    val originalLine: String
+        get() = renderedOriginalLine ?: renderOriginalLine().also { renderedOriginalLine = it }
+
+
+    /**
+     * The fully qualified name of the class containing the executed method, if known from structured stack trace data.
+     */
+    open val declaringClass: String?
+        get() = null
+
+    open val methodName: String?
+        get() = null
+
+    open val fileName: String?
+        get() = null
+
+    /**
+     * The line number in [fileName] or `null` if it's not known.
+     */
+    open val lineNumber: Int?
+        get() = null
+
+    open val moduleName: String?
+        get() = null
+
+
+    /**
+     * Lazily rendered frames have to override it, it's only called for frames created with the protected constructor.
+     */
+    protected open fun renderLine(): String =
+        throw IllegalStateException("${this::class.simpleName} has to override renderLine()")
+
+    protected open fun renderOriginalIndent(): String = ""
+
+    protected open fun renderOriginalLine(): String = originalIndent + line
+
+
+    /**
+     * Creates an eagerly rendered copy of this frame, structured stack trace data like [declaringClass] doesn't get
+     * copied.
+     */
+    fun copy(line: String = this.line, originalIndent: String = this.originalIndent, originalLine: String = this.originalLine) =
+        StackFrame(line, originalIndent, originalLine)
+
+    operator fun component1() = line
+
+    operator fun component2() = originalIndent
+
+    operator fun component3() = originalLine
+
+
+    /**
+     * Frames are equal if their rendered values are equal, regardless of how they have been created, so this renders
+     * them. Subclasses may compare their backing data instead when compared to an instance of the same class, e.g.
+     * [ParsedStackFrame].
+     */
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is StackFrame) return false
+
+        return originalLine == other.originalLine && line == other.line && originalIndent == other.originalIndent
+    }
+
+    // equal frames always have the same originalLine, there's no need to render the other values
+    override fun hashCode(): Int = originalLine.hashCode()
+
     override fun toString() = line
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package net.codinux.log.stacktrace
+
+import net.codinux.log.cache.BoundedCache
+import kotlin.time.Duration
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.TimeMark
+import kotlin.time.TimeSource
+
+/**
+ * Opt-in cache for [StackTraceFormatter] for exceptions that get logged over and over again, e.g. during an incident.
+ *
+ * Keys are the [StackTraceFingerprint] of a Throwable together with the formatter and shortener options, values are
+ * the formatted stack traces without message lines. On a hit the [StackTraceFingerprint.frameIdentity] of the entry
+ * gets compared, so that a stack trace with the same hash but other types or stack frames is treated as a miss. So a cache hit saves extracting, shortening and formatting the
+ * stack trace, only the message lines get rendered again as they may differ.
+ * Fingerprints are only available on the JVM, on other platforms stack traces don't get cached.
+ *
+ * The cache is bounded to [maxSize] entries, see [BoundedCache] for the eviction strategy. Additionally, entries
+ * older than [timeToLive] get replaced on their next access.
+ *
+ * [hits], [misses] and [expirations] are only counted if [recordStatistics] is set, see [BoundedCache].
+ */
+open class StackTraceCache(
+    maxSize: Int = DefaultMaxSize,
+    val timeToLive: Duration = DefaultTimeToLive,
+    protected val timeSource: TimeSource = TimeSource.Monotonic,
+    val recordStatistics: Boolean = false
+) {
+
+    companion object {
+        const val DefaultMaxSize = 256
+
+        val DefaultTimeToLive = 5.minutes
+    }
+
+
+    internal data class Key(
+        val fingerprint: Long,
+        val options: StackTraceFormatterOptions,
+        val shortenerOptions: StackTraceShortenerOptions
+    )
+
+    private class Entry(val template: FormattedStackTraceTemplate, val frameIdentity: List<Any>, val createdAt: TimeMark)
+
+
+    private val cache = BoundedCache<Key, Entry>(maxSize)
+
+    val capacity: Int
+        get() = cache.capacity
+
+    val size: Int
+        get() = cache.size
+
+    var hits: Long = 0
+        private set
+
+    var misses: Long = 0
+        private set
+
+    /**
+     * Count of cache misses due to an entry being older than [timeToLive], they are included in [misses].
+     */
+    var expirations: Long = 0
+        private set
+
+    val hitRate: Double
+        get() {
+            val hits = hits
+            val total = hits + misses
+            return if (total == 0L) 0.0 else hits.toDouble() / total
+        }
+
+
+    internal fun get(key: Key, fingerprint: StackTraceFingerprint): FormattedStackTraceTemplate? {
+        val entry = cache[key]
+
+        return if (entry == null || entry.frameIdentity != fingerprint.frameIdentity) { // different stack trace with the same hash
+            if (recordStatistics) {
+                misses++
+            }
+            null
+        } else if (entry.createdAt.elapsedNow() >= timeToLive) {
+            if (recordStatistics) {
+                expirations++
+                misses++
+            }
+            null
+        } else {
+            if (recordStatistics) {
+                hits++
+            }
+            entry.template
+        }
+    }
+
+    internal fun put(key: Key, fingerprint: StackTraceFingerprint, template: FormattedStackTraceTemplate) {
+        cache.put(key, Entry(template, fingerprint.frameIdentity, timeSource.markNow()))
+    }
+
+    fun clear() {
+        cache.clear()
+    }
+
+
+    override fun toString() = "$size of $capacity stack traces" + (if (recordStatistics) ", hit rate ${(hitRate * 100).toInt()} %" else "")
+
+}
@@ -1,6 +1,7 @@
 package net.codinux.log.stacktrace
 
 import net.codinux.log.error.ErrorReporter
+import net.codinux.log.platform.LogFormatterPlatform
 
 open class StackTraceExtractor {
 
@@ -17,8 +18,13 @@ open class StackTraceExtractor {
         val Default by lazy { StackTraceExtractor() }
     }
 
+    /**
+     * On the JVM the stack trace gets built from the structured stack trace data of [throwable], on all other
+     * platforms [Throwable.stackTraceToString] gets parsed.
+     */
     open fun extractStackTrace(throwable: Throwable): StackTrace =
-        extractStackTrace(throwable.stackTraceToString())
+        LogFormatterPlatform.extractStackTrace(throwable)
+            ?: extractStackTrace(throwable.stackTraceToString())
 
     open fun extractStackTrace(stackTraceString: String): StackTrace =
         extractStackTrace(stackTraceString.lines())
@@ -44,12 +50,8 @@ open class StackTraceExtractor {
             }
         }
 
-    private fun extractStackFrame(stackFrameLine: String): StackFrame {
-        val trimmedLine = stackFrameLine.trim() // remove original indent from stack frame line
-        val originalIndent = stackFrameLine.substringBefore(trimmedLine, "")
-
-        return StackFrame(trimmedLine, originalIndent, stackFrameLine)
-    }
+    private fun extractStackFrame(stackFrameLine: String): StackFrame =
+        ParsedStackFrame(stackFrameLine) // trimmed line and indent get only created if the frame gets displayed
 
     protected open fun getStackFramesAndCountCommonStackFrames(stackTraceLinesWithoutMessage: List<String>): Pair<List<String>, Int> {
         var lines = stackTraceLinesWithoutMessage
@@ -0,0 +1,90 @@
+package net.codinux.log.stacktrace
+
+/**
+ * Identifies a stack trace by the types and stack frames of a [Throwable] and its suppressed and nested Throwables,
+ * but not by their messages.
+ *
+ * [messageLines] contains the message lines of these Throwables (e.g. "java.lang.RuntimeException: Something went
+ * wrong") in the order the Throwables are traversed: each Throwable followed by its suppressed Throwables and then
+ * its cause.
+ *
+ * [hash] is only 64 bit, so different stack traces may have the same hash. [frameIdentity] contains the values the
+ * hash is computed from, that is the types, stack frames and nesting of the Throwables in traversal order, so that
+ * on equal hashes [isSameStackTraceAs] can tell if the stack traces really are the same.
+ */
+class StackTraceFingerprint(
+    val hash: Long,
+    val messageLines: List<String>,
+    val frameIdentity: List<Any>
+) {
+
+    companion object {
+        internal const val Seed = -0x340d631b7bdddcdbL // FNV-1a 64 bit offset basis
+
+        private const val Multiplier = -0x61c8864680b583ebL // golden ratio
+
+        internal const val SuppressedMarker = 1
+
+        internal const val CauseMarker = 2
+
+        internal const val CircularReferenceMarker = 3
+
+        internal const val EndMarker = 4
+
+
+        /**
+         * Computes the fingerprint of an extracted [StackTrace], for platforms on which
+         * [net.codinux.log.platform.LogFormatterPlatform.getStackTraceFingerprint] is not available. It's more expensive
+         * as the stack trace string has to be parsed first. The type of a Throwable is taken from its message line.
+         */
+        fun of(stackTrace: StackTrace): StackTraceFingerprint {
+            val messageLines = mutableListOf<String>()
+            val frameIdentity = mutableListOf<Any>()
+
+            val hash = of(stackTrace, Seed, messageLines, frameIdentity)
+
+            return StackTraceFingerprint(hash, messageLines, frameIdentity)
+        }
+
+        private fun of(stackTrace: StackTrace, seed: Long, messageLines: MutableList<String>, frameIdentity: MutableList<Any>): Long {
+            messageLines.add(stackTrace.messageLine)
+
+            val type = stackTrace.messageLine.substringBefore(": ")
+            var hash = mix(mix(mix(seed, type.hashCode()), stackTrace.stackTrace.size), stackTrace.countSkippedCommonFrames)
+            stackTrace.stackTrace.forEach { frame ->
+                hash = mix(hash, frame.line.hashCode())
+            }
+            frameIdentity.add(type)
+            frameIdentity.add(stackTrace.stackTrace)
+            frameIdentity.add(stackTrace.countSkippedCommonFrames)
+
+            stackTrace.suppressed.forEach { suppressed ->
+                frameIdentity.add(SuppressedMarker)
+                hash = of(suppressed, mix(hash, SuppressedMarker), messageLines, frameIdentity)
+            }
+
+            stackTrace.causedBy?.let { causedBy ->
+                frameIdentity.add(CauseMarker)
+                hash = of(causedBy, mix(hash, CauseMarker), messageLines, frameIdentity)
+            }
+
+            frameIdentity.add(EndMarker)
+
+            return mix(hash, EndMarker)
+        }
+
+        internal fun mix(hash: Long, value: Int): Long {
+            val mixed = (hash xor (value.toLong() and 0xFFFFFFFFL)) * Multiplier
+
+            return mixed xor (mixed ushr 29)
+        }
+    }
+
+    /**
+     * Returns `true` if [other] has been computed from a stack trace with the same types and stack frames.
+     */
+    fun isSameStackTraceAs(other: StackTraceFingerprint): Boolean =
+        hash == other.hash && frameIdentity == other.frameIdentity
+
+    override fun toString() = hash.toString(16)
+}
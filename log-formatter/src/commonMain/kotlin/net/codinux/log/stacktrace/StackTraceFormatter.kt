@@ -1,10 +1,22 @@
 package net.codinux.log.stacktrace
 
+import net.codinux.log.buffer.LengthEstimator
+import net.codinux.log.buffer.StringBuilderPool
+import net.codinux.log.encoding.Utf8Encoder
+import net.codinux.log.platform.LogFormatterPlatform
 import kotlin.jvm.JvmOverloads
 
 open class StackTraceFormatter @JvmOverloads constructor(
     protected val options: StackTraceFormatterOptions = StackTraceFormatterOptions.Default,
-    protected val stackTraceShortener: StackTraceShortener = StackTraceShortener.Default
+    protected val stackTraceShortener: StackTraceShortener = StackTraceShortener.Default,
+    /**
+     * Opt-in: Reuses formatted stack traces of Throwables with the same type and stack frames, see [StackTraceCache].
+     */
+    protected val stackTraceCache: StackTraceCache? = null,
+    /**
+     * Opt-in: Summarizes stack traces that recur within a time window, see [DuplicateStackTraceTracker] and [appendDuplicateTo].
+     */
+    protected val duplicateStackTraceTracker: DuplicateStackTraceTracker? = null
 ) {
 
     companion object {
@@ -16,10 +28,28 @@ open class StackTraceFormatter @JvmOverloads constructor(
             : this(options, StackTraceShortener(shortenerOptions))
 
 
+    protected open val utf8Encoder: Utf8Encoder = Utf8Encoder.Default
+
+    // only used to fingerprint stack traces for duplicateStackTraceTracker on platforms without structured stack trace data
+    protected open val stackTraceExtractor: StackTraceExtractor = StackTraceExtractor.Default
+
+    protected open val stringBuilderPool: StringBuilderPool = StringBuilderPool.Default
+
+    protected open val lengthEstimator = LengthEstimator(LengthEstimator.DefaultInitialStackTraceEstimate)
+
+    /**
+     * Running estimate of the length of the stack trace strings formatted by this instance,
+     * e.g. to presize the buffer a stack trace gets appended to.
+     */
+    open val estimatedLength: Int
+        get() = lengthEstimator.estimatedLength
+
     @JvmOverloads
     open fun format(throwable: Throwable, options: StackTraceFormatterOptions = this.options,
-                    shortenerOptions: StackTraceShortenerOptions = stackTraceShortener.options) =
-        format(stackTraceShortener.shorten(throwable, shortenerOptions), options)
+                    shortenerOptions: StackTraceShortenerOptions = stackTraceShortener.options): String =
+        stringBuilderPool.format(estimatedLength) { builder ->
+            formatTo(throwable, builder, options, shortenerOptions)
+        }
 
     @JvmOverloads
     open fun format(stackTrace: StackTrace, options: StackTraceFormatterOptions = this.options,
@@ -27,38 +57,204 @@ open class StackTraceFormatter @JvmOverloads constructor(
         format(stackTraceShortener.shorten(stackTrace, shortenerOptions), options)
 
     @JvmOverloads
-    open fun format(stackTrace: ShortenedStackTrace, options: StackTraceFormatterOptions = this.options): String {
-        val builder = StringBuilder()
+    open fun format(stackTrace: ShortenedStackTrace, options: StackTraceFormatterOptions = this.options): String =
+        stringBuilderPool.format(estimatedLength) { builder ->
+            formatTo(stackTrace, builder, options)
+        }
+
+    /**
+     * Same as [format], but streams the stack trace directly into [appendable] instead of returning a new String.
+     *
+     * If [StackTraceFormatterOptions.maxStackTraceStringLength] is set, appending stack frames stops as soon as it's
+     * exceeded, so the lines of the remaining frames don't get rendered. The stack trace still gets extracted from
+     * [throwable] and shortened completely before, as [StackTraceShortener] needs all Throwables and frames e.g. to
+     * skip common frames and to put the root cause first.
+     */
+    @JvmOverloads
+    open fun formatTo(throwable: Throwable, appendable: Appendable, options: StackTraceFormatterOptions = this.options,
+                      shortenerOptions: StackTraceShortenerOptions = stackTraceShortener.options) {
+        val startLength = (appendable as? StringBuilder)?.length
+
+        val tracker = duplicateStackTraceTracker
+        var stackTrace: StackTrace? = null
+        var fingerprint = if (stackTraceCache == null && tracker == null) null
+                          else LogFormatterPlatform.getStackTraceFingerprint(throwable)
+
+        if (fingerprint == null && tracker != null) { // no cheap fingerprint on this platform, so compute it from the extracted stack trace
+            stackTrace = stackTraceExtractor.extractStackTrace(throwable)
+            fingerprint = StackTraceFingerprint.of(stackTrace)
+        }
+
+        val occurrence = if (fingerprint == null) null else tracker?.registerOccurrence(fingerprint)
+
+        if (fingerprint == null) {
+            appendStackTraceTo(stackTraceShortener.shorten(throwable, shortenerOptions), appendable, options)
+        } else if (occurrence == null) {
+            appendStackTraceTo(throwable, stackTrace, fingerprint, appendable, options, shortenerOptions)
+        } else if (occurrence.isFirst) {
+            appendFirstOccurrence(throwable, stackTrace, fingerprint, occurrence, appendable, options, shortenerOptions)
+        } else {
+            appendDuplicateTo(fingerprint.messageLines.first(), occurrence, appendable, options)
+        }
+
+        recordLength(appendable, startLength)
+    }
+
+    /**
+     * Same as [format], but streams the stack trace directly into [appendable] instead of returning a new String.
+     *
+     * If [StackTraceFormatterOptions.maxStackTraceStringLength] is set, appending stack frames stops as soon as it's
+     * exceeded.
+     */
+    @JvmOverloads
+    open fun formatTo(stackTrace: ShortenedStackTrace, appendable: Appendable, options: StackTraceFormatterOptions = this.options) {
+        val startLength = (appendable as? StringBuilder)?.length
+
+        appendStackTraceTo(stackTrace, appendable, options)
+
+        recordLength(appendable, startLength)
+    }
 
-        appendStackTraceAndChildren(stackTrace, builder, options)
+    protected open fun appendStackTraceTo(stackTrace: ShortenedStackTrace, appendable: Appendable, options: StackTraceFormatterOptions) {
+        val output = limitToMaxLength(appendable, options)
+
+        appendStackTraceAndChildren(stackTrace, output, options)
 
         if (options.addLineSeparatorAtEnd) {
-            builder.append(options.lineSeparator)
+            output.append(options.lineSeparator)
+        }
+
+        finish(output)
+    }
+
+    /**
+     * [stackTrace] is only set if it already had to be extracted for computing [fingerprint]. In this case there's no
+     * structured stack trace data available on this platform, which [stackTraceCache] requires.
+     */
+    private fun appendStackTraceTo(throwable: Throwable, stackTrace: StackTrace?, fingerprint: StackTraceFingerprint, appendable: Appendable,
+                                   options: StackTraceFormatterOptions, shortenerOptions: StackTraceShortenerOptions) {
+        val cache = stackTraceCache
+
+        if (stackTrace != null) {
+            appendStackTraceTo(stackTraceShortener.shorten(stackTrace, shortenerOptions), appendable, options)
+        } else if (cache == null) {
+            appendStackTraceTo(stackTraceShortener.shorten(throwable, shortenerOptions), appendable, options)
+        } else {
+            appendCachedStackTraceTo(throwable, fingerprint, cache, appendable, options, shortenerOptions)
+        }
+    }
+
+    /**
+     * Appends the full stack trace followed by a line with the id of the stack trace, so that summaries of its
+     * duplicates can be related to it. The stack trace gets cropped so that the id line never gets cropped.
+     */
+    private fun appendFirstOccurrence(throwable: Throwable, stackTrace: StackTrace?, fingerprint: StackTraceFingerprint,
+                                      occurrence: DuplicateStackTraceTracker.Occurrence, appendable: Appendable,
+                                      options: StackTraceFormatterOptions, shortenerOptions: StackTraceShortenerOptions) {
+        val idLine = formatStackTraceIdLine(occurrence, options)
+        val lineSeparatorAtEnd = if (options.addLineSeparatorAtEnd) options.lineSeparator else ""
+
+        val maxLength = options.maxStackTraceStringLength
+        val idLineLength = if (maxLength == null || maxLength <= 0) 0
+                           else measureLength(options.lineSeparator, options) + measureLength(idLine, options) + measureLength(lineSeparatorAtEnd, options)
+
+        if (maxLength != null && maxLength > 0 && maxLength <= idLineLength) { // no space for id line
+            appendStackTraceTo(throwable, stackTrace, fingerprint, appendable, options, shortenerOptions)
+            return
         }
 
-        if (exceedsMaxLength(builder, options)) {
-            cropToMaxLength(builder, options)
+        val stackTraceOptions = options.copy(addLineSeparatorAtEnd = false,
+            maxStackTraceStringLength = if (maxLength == null || maxLength <= 0) maxLength else maxLength - idLineLength)
+
+        appendStackTraceTo(throwable, stackTrace, fingerprint, appendable, stackTraceOptions, shortenerOptions)
+
+        appendable.append(options.lineSeparator).append(idLine).append(lineSeparatorAtEnd)
+    }
+
+    // in the unit maxStackTraceStringLength is measured in, messageLineIndent may contain non-ASCII chars
+    private fun measureLength(text: String, options: StackTraceFormatterOptions): Int =
+        if (options.maxStackTraceStringLengthUnit == StringLengthUnit.Utf8Bytes) utf8Encoder.encodedLength(text)
+        else text.length
+
+    protected open fun formatStackTraceIdLine(occurrence: DuplicateStackTraceTracker.Occurrence, options: StackTraceFormatterOptions): String =
+        "${options.messageLineIndent}[stack trace #${occurrence.id}]"
+
+    /**
+     * Formats a stack trace that already has been output within the window of [duplicateStackTraceTracker] as its
+     * message line and a reference to it, e.g.
+     * "java.lang.IllegalStateException: Connection refused [same stack trace as #3f2a9c0d1e4b5a67, seen 412 times]".
+     */
+    protected open fun appendDuplicateTo(messageLine: String, occurrence: DuplicateStackTraceTracker.Occurrence,
+                                         appendable: Appendable, options: StackTraceFormatterOptions) {
+        val output = limitToMaxLength(appendable, options)
+
+        output.append(options.messageLineIndent).append(messageLine)
+        output.append(" [same stack trace as #").append(occurrence.id).append(", seen ").append(occurrence.count.toString()).append(" times]")
+
+        if (options.addLineSeparatorAtEnd) {
+            output.append(options.lineSeparator)
         }
 
-        return builder.toString()
+        finish(output)
     }
 
-    protected open fun appendStackTraceAndChildren(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions,
+    private fun appendCachedStackTraceTo(throwable: Throwable, fingerprint: StackTraceFingerprint, cache: StackTraceCache,
+                                         appendable: Appendable, options: StackTraceFormatterOptions, shortenerOptions: StackTraceShortenerOptions) {
+        val key = StackTraceCache.Key(fingerprint.hash, options, shortenerOptions)
+
+        val template = cache.get(key, fingerprint)
+            ?: createTemplate(throwable, options, shortenerOptions)?.also { cache.put(key, fingerprint, it) }
+
+        if (template == null) {
+            appendStackTraceTo(stackTraceShortener.shorten(throwable, shortenerOptions), appendable, options)
+        } else {
+            // the template is not cropped as the length of the message lines differs, so crop the complete stack trace
+            val output = limitToMaxLength(appendable, options)
+
+            template.appendTo(output, fingerprint.messageLines)
+
+            finish(output)
+        }
+    }
+
+    private fun createTemplate(throwable: Throwable, options: StackTraceFormatterOptions,
+                               shortenerOptions: StackTraceShortenerOptions): FormattedStackTraceTemplate? {
+        val stackTrace = LogFormatterPlatform.extractStackTrace(throwable) ?: return null
+
+        val withPlaceholders = replaceMessageLinesWithPlaceholders(stackTrace, IntArray(1))
+        val shortened = stackTraceShortener.shorten(withPlaceholders, shortenerOptions)
+
+        val formatted = StringBuilder(estimatedLength)
+        appendStackTraceTo(shortened, formatted, options.copy(maxStackTraceStringLength = null))
+
+        return FormattedStackTraceTemplate.parse(formatted.toString())
+    }
+
+    // numbers the message lines in the same order as StackTraceFingerprint.messageLines: Throwable, suppressed Throwables, cause
+    private fun replaceMessageLinesWithPlaceholders(stackTrace: StackTrace, nextMessageIndex: IntArray): StackTrace {
+        val messageLine = FormattedStackTraceTemplate.placeholder(nextMessageIndex[0]++)
+        val suppressed = stackTrace.suppressed.map { replaceMessageLinesWithPlaceholders(it, nextMessageIndex) }
+        val causedBy = stackTrace.causedBy?.let { replaceMessageLinesWithPlaceholders(it, nextMessageIndex) }
+
+        return stackTrace.copy(messageLine = messageLine, causedBy = causedBy, suppressed = suppressed)
+    }
+
+    protected open fun appendStackTraceAndChildren(stackTrace: ShortenedStackTrace, builder: Appendable, options: StackTraceFormatterOptions,
                                                    additionalIndent: String = "", messageLinePrefix: String = "") {
         appendStackTrace(stackTrace, builder, options, additionalIndent, messageLinePrefix)
 
-        if (exceedsMaxLength(builder, options)) {
+        if (exceedsMaxLength(builder)) {
             return // no need to add even more characters, maximum length already reached
         }
 
         if (options.ignoreSuppressedExceptions == false) {
-            stackTrace.suppressed.forEach { suppressed ->
+            for (suppressed in stackTrace.suppressed) {
                 builder.append(options.lineSeparator)
                 appendStackTraceAndChildren(suppressed, builder, options, additionalIndent + options.suppressedExceptionIndent, options.suppressedExceptionMessagePrefix)
-            }
 
-            if (exceedsMaxLength(builder, options)) {
-                return // no need to add even more characters, maximum length already reached
+                if (exceedsMaxLength(builder)) {
+                    return // no need to add even more characters, maximum length already reached
+                }
             }
         }
         appendCountSkippedSuppressedThrowables(stackTrace, builder, options, additionalIndent + options.suppressedExceptionIndent)
@@ -73,48 +269,77 @@ open class StackTraceFormatter @JvmOverloads constructor(
         appendCountSkippedNestedThrowables(stackTrace, builder, options, additionalIndent + nestedThrowableIndent)
     }
 
-    protected open fun appendStackTrace(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions,
+    protected open fun appendStackTrace(stackTrace: ShortenedStackTrace, builder: Appendable, options: StackTraceFormatterOptions,
                                         additionalIndent: String = "", messageLinePrefix: String = "") {
-        builder.append(additionalIndent + options.messageLineIndent + messageLinePrefix + stackTrace.messageLine)
+        builder.append(additionalIndent).append(options.messageLineIndent).append(messageLinePrefix).append(stackTrace.messageLine)
 
-        stackTrace.framesToDisplay.forEach { frame ->
-            builder.append(options.lineSeparator + additionalIndent + options.stackFrameIndent + formatFrame(frame))
+        for (frame in stackTrace.framesToDisplay) {
+            if (exceedsMaxLength(builder)) {
+                return // don't render the remaining frames
+            }
+
+            builder.append(options.lineSeparator).append(additionalIndent).append(options.stackFrameIndent).append(formatFrame(frame))
         }
 
         if (stackTrace.countTruncatedFrames > 0) {
-            builder.append(options.lineSeparator + additionalIndent + options.stackFrameIndent + options.ellipsis + " ${stackTrace.countTruncatedFrames} frames truncated")
+            builder.append(options.lineSeparator).append(additionalIndent).append(options.stackFrameIndent).append(options.ellipsis)
+                .append(" ${stackTrace.countTruncatedFrames} frames truncated")
             if (stackTrace.countSkippedCommonFrames > 0) {
                 builder.append(" (including ${stackTrace.countSkippedCommonFrames} common frames)")
             }
         } else if (stackTrace.countSkippedCommonFrames > 0) {
             // TODO: Kotlin uses "... and 18 more common stack frames skipped", what is better?
-            builder.append(options.lineSeparator + additionalIndent + options.stackFrameIndent + options.ellipsis + " ${stackTrace.countSkippedCommonFrames} common frames omitted")
+            builder.append(options.lineSeparator).append(additionalIndent).append(options.stackFrameIndent).append(options.ellipsis)
+                .append(" ${stackTrace.countSkippedCommonFrames} common frames omitted")
         }
     }
 
-    protected open fun appendCountSkippedNestedThrowables(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions, additionalIndent: String) {
+    protected open fun appendCountSkippedNestedThrowables(stackTrace: ShortenedStackTrace, builder: Appendable, options: StackTraceFormatterOptions, additionalIndent: String) {
         if (stackTrace.countSkippedNestedThrowables > 0) {
-            builder.append(options.lineSeparator + additionalIndent + options.ellipsis + " ${stackTrace.countSkippedNestedThrowables} nested cause(s) omitted")
+            builder.append(options.lineSeparator).append(additionalIndent).append(options.ellipsis)
+                .append(" ${stackTrace.countSkippedNestedThrowables} nested cause(s) omitted")
         }
     }
 
-    protected open fun appendCountSkippedSuppressedThrowables(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions, additionalIndent: String) {
+    protected open fun appendCountSkippedSuppressedThrowables(stackTrace: ShortenedStackTrace, builder: Appendable, options: StackTraceFormatterOptions, additionalIndent: String) {
         if (stackTrace.countSkippedSuppressedThrowables > 0) {
-            builder.append(options.lineSeparator + additionalIndent + options.ellipsis + " ${stackTrace.countSkippedSuppressedThrowables} suppressed exception(s) omitted")
+            builder.append(options.lineSeparator).append(additionalIndent).append(options.ellipsis)
+                .append(" ${stackTrace.countSkippedSuppressedThrowables} suppressed exception(s) omitted")
         }
     }
 
     protected open fun formatFrame(frame: StackFrame): String =
         frame.line
 
+    @Deprecated("Not called by format() anymore, override appendStackTraceAndChildren(ShortenedStackTrace, Appendable, ...) instead")
+    protected open fun appendStackTraceAndChildren(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions,
+                                                   additionalIndent: String = "", messageLinePrefix: String = "") {
+        appendStackTraceAndChildren(stackTrace, builder as Appendable, options, additionalIndent, messageLinePrefix)
+    }
+
+    @Deprecated("Not called by format() anymore, override appendStackTrace(ShortenedStackTrace, Appendable, ...) instead")
+    protected open fun appendStackTrace(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions,
+                                        additionalIndent: String = "", messageLinePrefix: String = "") {
+        appendStackTrace(stackTrace, builder as Appendable, options, additionalIndent, messageLinePrefix)
+    }
+
+    @Deprecated("Not called by format() anymore, override appendCountSkippedNestedThrowables(ShortenedStackTrace, Appendable, ...) instead")
+    protected open fun appendCountSkippedNestedThrowables(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions, additionalIndent: String) {
+        appendCountSkippedNestedThrowables(stackTrace, builder as Appendable, options, additionalIndent)
+    }
+
+    @Deprecated("Not called by format() anymore, override appendCountSkippedSuppressedThrowables(ShortenedStackTrace, Appendable, ...) instead")
+    protected open fun appendCountSkippedSuppressedThrowables(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions, additionalIndent: String) {
+        appendCountSkippedSuppressedThrowables(stackTrace, builder as Appendable, options, additionalIndent)
+    }
 
+    @Deprecated("Not called by format() anymore, stack traces get cropped while appending them, see limitToMaxLength()")
     protected open fun cropToMaxLength(builder: StringBuilder, options: StackTraceFormatterOptions) {
         val maxLength = options.maxStackTraceStringLength ?: return
 
         if (maxLength <= 0) {
             // don't do anything then
         } else if (maxLength > options.ellipsis.length) {
-            // TODO: may also show ... 1234 characters truncated
             builder.setLength(maxLength - options.ellipsis.length)
             builder.append(options.ellipsis)
         } else { // maxLength shorter than ellipsis string
@@ -123,10 +348,43 @@ open class StackTraceFormatter @JvmOverloads constructor(
         }
     }
 
+    @Deprecated("Not called by format() anymore, override exceedsMaxLength(Appendable) instead")
     protected open fun exceedsMaxLength(builder: StringBuilder, options: StackTraceFormatterOptions): Boolean {
         val maxLength = options.maxStackTraceStringLength ?: return false
 
         return maxLength > 0 && builder.length > maxLength
     }
 
-}
\ No newline at end of file
+
+    /**
+     * If [StackTraceFormatterOptions.maxStackTraceStringLength] is set, returns an [Appendable] that crops the text
+     * appended to [appendable] to it. [finish] has to be called after the stack trace has been appended.
+     */
+    protected open fun limitToMaxLength(appendable: Appendable, options: StackTraceFormatterOptions): Appendable {
+        val maxLength = options.maxStackTraceStringLength
+
+        return if (maxLength == null || maxLength <= 0) {
+            appendable
+        } else {
+            LengthLimitedAppendable(appendable, maxLength, options.maxStackTraceStringLengthUnit, options.ellipsis, utf8Encoder)
+        }
+    }
+
+    protected open fun finish(output: Appendable) {
+        (output as? LengthLimitedAppendable)?.finish()
+    }
+
+    /**
+     * Returns `true` if [builder] has been created by [limitToMaxLength] and maxStackTraceStringLength has been exceeded,
+     * so that rendering can stop.
+     */
+    protected open fun exceedsMaxLength(builder: Appendable): Boolean =
+        builder is LengthLimitedAppendable && builder.isMaxLengthExceeded
+
+    private fun recordLength(appendable: Appendable, startLength: Int?) {
+        if (startLength != null && appendable is StringBuilder) {
+            lengthEstimator.record(appendable.length - startLength)
+        }
+    }
+
+}
@@ -44,9 +44,17 @@ data class StackTraceFormatterOptions(
      *
      * Be aware, count characters used may not equal count bytes used, which may is the
      * more important value when sending log to a log storage like Loki or Elasticsearch,
-     * if stack trace contains non-UTF-8 characters.
+     * if stack trace contains non-ASCII characters. In this case set
+     * [maxStackTraceStringLengthUnit] to [StringLengthUnit.Utf8Bytes].
      */
     val maxStackTraceStringLength: Int? = null,
+
+    /**
+     * If [maxStackTraceStringLength] is measured in characters or in UTF-8 encoded bytes.
+     *
+     * Defaults to [StringLengthUnit.Chars].
+     */
+    val maxStackTraceStringLengthUnit: StringLengthUnit = StringLengthUnit.Chars,
 ) {
     companion object {
         val Default by lazy { StackTraceFormatterOptions() }
@@ -71,6 +79,7 @@ data class StackTraceFormatterOptions(
 
         protected var ellipsis: String = "..."
         protected var maxStackTraceStringLength: Int? = null
+        protected var maxStackTraceStringLengthUnit: StringLengthUnit = StringLengthUnit.Chars
 
         fun messageLineIndent(value: String) = apply { messageLineIndent = value }
         fun stackFrameIndent(value: String) = apply { stackFrameIndent = value }
@@ -90,6 +99,7 @@ data class StackTraceFormatterOptions(
 
         fun ellipsis(value: String) = apply { ellipsis = value }
         fun maxStackTraceStringLength(value: Int?) = apply { maxStackTraceStringLength = value }
+        fun maxStackTraceStringLengthUnit(value: StringLengthUnit) = apply { maxStackTraceStringLengthUnit = value }
 
         fun build() = StackTraceFormatterOptions(
             messageLineIndent = messageLineIndent,
@@ -109,7 +119,8 @@ data class StackTraceFormatterOptions(
             addLineSeparatorAtEnd = addLineSeparatorAtEnd,
 
             ellipsis = ellipsis,
-            maxStackTraceStringLength = maxStackTraceStringLength
+            maxStackTraceStringLength = maxStackTraceStringLength,
+            maxStackTraceStringLengthUnit = maxStackTraceStringLengthUnit
         )
     }
 
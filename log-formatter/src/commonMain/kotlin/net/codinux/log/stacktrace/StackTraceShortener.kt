@@ -6,7 +6,8 @@ import kotlin.jvm.JvmOverloads
  * Note: Common stack frames that reoccur in nested [Throwable] causes are omitted there and
  * indicated by [ShortenedStackTrace.countSkippedCommonFrames].
  * This is due to the behavior of [Throwable.stackTraceToString()], which we have to rely on,
- * as the Kotlin standard library does not expose raw stack trace data (except on the JVM).
+ * as the Kotlin standard library does not expose raw stack trace data (except on the JVM, where
+ * [StackTraceExtractor] omits common frames the same way).
  */
 open class StackTraceShortener @JvmOverloads constructor(
     val options: StackTraceShortenerOptions = StackTraceShortenerOptions.Default,
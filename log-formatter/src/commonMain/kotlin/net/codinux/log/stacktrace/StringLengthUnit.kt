@@ -0,0 +1,20 @@
+package net.codinux.log.stacktrace
+
+/**
+ * In which unit a maximum string length like [StackTraceFormatterOptions.maxStackTraceStringLength] is measured.
+ */
+enum class StringLengthUnit {
+
+    /**
+     * Count of [Char]s, that is UTF-16 code units, as returned by [String.length].
+     */
+    Chars,
+
+    /**
+     * Count of bytes the string uses when it's encoded to UTF-8.
+     *
+     * This is what log storages like Loki or Elasticsearch limit.
+     */
+    Utf8Bytes
+
+}
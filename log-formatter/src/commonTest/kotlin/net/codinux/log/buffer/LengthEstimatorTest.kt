@@ -0,0 +1,36 @@
+package net.codinux.log.buffer
+
+import assertk.assertThat
+import assertk.assertions.isEqualTo
+import kotlin.test.Test
+
+class LengthEstimatorTest {
+
+    @Test
+    fun smallIncreasesRaiseEstimate() {
+        val underTest = LengthEstimator(initialEstimate = 100)
+
+        repeat(100) { underTest.record(105) }
+
+        assertThat(underTest.estimatedLength).isEqualTo(105)
+    }
+
+    @Test
+    fun smallDecreasesLowerEstimate() {
+        val underTest = LengthEstimator(initialEstimate = 100)
+
+        repeat(100) { underTest.record(95) }
+
+        assertThat(underTest.estimatedLength).isEqualTo(95)
+    }
+
+    @Test
+    fun alternatingLengthsDoNotDrift() {
+        val underTest = LengthEstimator(initialEstimate = 100)
+
+        repeat(1000) { underTest.record(if (it % 2 == 0) 99 else 101) }
+
+        assertThat(underTest.estimatedLength).isEqualTo(100)
+    }
+
+}
@@ -0,0 +1,89 @@
+package net.codinux.log.buffer
+
+import assertk.assertThat
+import assertk.assertions.*
+import net.codinux.log.test.TestPlatform
+import kotlin.test.Test
+
+class StringBuilderPoolTest {
+
+    private val underTest = StringBuilderPool(initialCapacity = 16, maxRetainedCapacity = 1024)
+
+
+    @Test
+    fun acquiredBuilderIsEmpty() {
+        val builder = underTest.acquire()
+        builder.append("First use")
+        underTest.release(builder)
+
+        val result = underTest.acquire()
+
+        assertThat(result.length).isEqualTo(0)
+    }
+
+    @Test
+    fun releasedBuilderGetsReused() {
+        val builder = underTest.acquire()
+        underTest.release(builder)
+
+        val result = underTest.acquire()
+
+        if (TestPlatform.SupportsThreadLocals) {
+            assertThat(result).isSameInstanceAs(builder)
+        }
+    }
+
+    @Test
+    fun nestedAcquireReturnsDifferentBuilder() {
+        val outer = underTest.acquire()
+
+        val inner = underTest.acquire()
+
+        assertThat(inner).isNotSameInstanceAs(outer)
+
+        underTest.release(inner)
+        underTest.release(outer)
+    }
+
+    @Test
+    fun oversizedBuilderDoesNotGetRetained() {
+        val builder = underTest.acquire()
+        builder.append("x".repeat(4096))
+        underTest.release(builder)
+
+        val result = underTest.acquire()
+
+        assertThat(result).isNotSameInstanceAs(builder)
+    }
+
+    @Test
+    fun pooledBuilderIsNotPresizedBeyondMaxRetainedCapacity() {
+        val builder = underTest.acquire(4096)
+        underTest.release(builder)
+
+        val result = underTest.acquire()
+
+        if (TestPlatform.SupportsThreadLocals) {
+            assertThat(builder.capacity()).isLessThanOrEqualTo(1024)
+            assertThat(result).isSameInstanceAs(builder)
+        }
+    }
+
+    @Test
+    fun nonRecycling() {
+        val builder = StringBuilderPool.NonRecycling.acquire()
+        StringBuilderPool.NonRecycling.release(builder)
+
+        val result = StringBuilderPool.NonRecycling.acquire()
+
+        assertThat(result).isNotSameInstanceAs(builder)
+    }
+
+    @Test
+    fun format() {
+        val result = underTest.format { it.append("Hello").append(' ').append("World") }
+
+        assertThat(result).isEqualTo("Hello World")
+    }
+
+}
@@ -0,0 +1,67 @@
+package net.codinux.log.cache
+
+import assertk.assertThat
+import assertk.assertions.*
+import kotlin.test.Test
+
+class BoundedCacheTest {
+
+    private val underTest = BoundedCache<String, String>(maxSize = 4, recordStatistics = true)
+
+
+    @Test
+    fun capacityIsRoundedUpToPowerOfTwo() {
+        assertThat(BoundedCache<String, String>(maxSize = 100).capacity).isEqualTo(128)
+    }
+
+    @Test
+    fun getOrPut_ComputesValueOnlyOnce() {
+        var computations = 0
+
+        underTest.getOrPut("key") { computations++; "value" }
+        val result = underTest.getOrPut("key") { computations++; "other value" }
+
+        assertThat(result).isEqualTo("value")
+        assertThat(computations).isEqualTo(1)
+        assertThat(underTest.hits).isEqualTo(1L)
+        assertThat(underTest.misses).isEqualTo(1L)
+    }
+
+    @Test
+    fun statisticsAreNotRecordedByDefault() {
+        val underTest = BoundedCache<String, String>(maxSize = 4)
+
+        underTest.getOrPut("key") { "value" }
+        underTest.getOrPut("key") { "value" }
+
+        assertThat(underTest.hits).isEqualTo(0L)
+        assertThat(underTest.misses).isEqualTo(0L)
+    }
+
+    @Test
+    fun neverHoldsMoreThanCapacityEntries() {
+        (1..100).forEach { underTest.put("key$it", "value$it") }
+
+        assertThat(underTest.size).isLessThanOrEqualTo(underTest.capacity)
+    }
+
+    @Test
+    fun evictedEntryIsRecomputed() {
+        (1..100).forEach { underTest.put("key$it", "value$it") }
+
+        val result = underTest.getOrPut("key1") { "recomputed" }
+
+        assertThat(result).isIn("value1", "recomputed")
+    }
+
+    @Test
+    fun clear() {
+        underTest.put("key", "value")
+
+        underTest.clear()
+
+        assertThat(underTest["key"]).isNull()
+        assertThat(underTest.size).isEqualTo(0)
+    }
+
+}
@@ -0,0 +1,58 @@
+package net.codinux.log.classname
+
+import assertk.assertThat
+import assertk.assertions.isEqualTo
+import assertk.assertions.isNotEqualTo
+import kotlin.test.Test
+
+class CachingClassNameAbbreviatorTest {
+
+    companion object {
+        private const val ClassName = "org.company.project.feature.service.UserService"
+    }
+
+    private val underTest = CachingClassNameAbbreviator(recordCacheStatistics = true)
+
+
+    @Test
+    fun returnsSameResultAsClassNameAbbreviator() {
+        val result = underTest.abbreviate(ClassName, 20)
+
+        assertThat(result).isEqualTo(ClassNameAbbreviator().abbreviate(ClassName, 20))
+    }
+
+    @Test
+    fun secondCallIsCacheHit() {
+        underTest.abbreviate(ClassName, 20)
+        underTest.abbreviate(ClassName, 20)
+
+        assertThat(underTest.cacheMisses).isEqualTo(1L)
+        assertThat(underTest.cacheHits).isEqualTo(1L)
+    }
+
+    @Test
+    fun differentMaxLengthsAreCachedSeparately() {
+        val first = underTest.abbreviate(ClassName, 20)
+        val second = underTest.abbreviate(ClassName, 30)
+
+        assertThat(second).isNotEqualTo(first)
+        assertThat(underTest.cacheMisses).isEqualTo(2L)
+    }
+
+    @Test
+    fun differentOptionsAreCachedSeparately() {
+        val first = underTest.abbreviate(ClassName, 5, ClassNameAbbreviatorOptions.Default)
+        val second = underTest.abbreviate(ClassName, 5, ClassNameAbbreviatorOptions.Logback)
+
+        assertThat(first).isEqualTo("Use..")
+        assertThat(second).isEqualTo("UserService")
+    }
+
+    @Test
+    fun nameNotExceedingMaxLength_IsNotCached() {
+        underTest.abbreviate(ClassName, ClassName.length)
+
+        assertThat(underTest.cacheSize).isEqualTo(0)
+    }
+
+}
@@ -3,6 +3,7 @@ package net.codinux.log.classname
 import assertk.assertThat
 import assertk.assertions.hasLength
 import assertk.assertions.isEqualTo
+import assertk.assertions.isNull
 import kotlin.test.Test
 
 class ClassNameAbbreviatorTest {
@@ -14,10 +15,14 @@ class ClassNameAbbreviatorTest {
 
         private const val LongClassName = "ServiceWithALongClassName"
         private const val ShortClassName = "NameAbbreviator"
+
+        private val LongPackageNameSegments = LongPackageName.split('.').dropLast(1)
     }
 
     private val underTest = ClassNameAbbreviator()
 
+    private val deprecatedApi = DeprecatedApiClassNameAbbreviator()
+
 
     /*          ClassNameAbbreviationStrategy tests             */
 
@@ -336,6 +341,122 @@ class ClassNameAbbreviatorTest {
     }
 
 
+    /*                  Class without package                   */
+
+    @Test
+    fun classWithoutPackage_MinPackageNameTooLongStrategy_KeepEvenIfLongerThanMaxLength() {
+        val result = underTest.abbreviate(LongClassName, LongClassName.length - 1,
+            options(ClassNameAbbreviationStrategy.KeepClassNameEvenIfLonger, MinPackageNameTooLongStrategy.KeepEvenIfLongerThanMaxLength))
+
+        assertThat(result).isEqualTo(LongClassName)
+    }
+
+    @Test
+    fun classWithoutPackage_MinPackageNameTooLongStrategy_KeepOnlyIfMaxLengthLongerThanClassName() {
+        val result = underTest.abbreviate(LongClassName, LongClassName.length - 1,
+            options(ClassNameAbbreviationStrategy.KeepClassNameEvenIfLonger, MinPackageNameTooLongStrategy.KeepOnlyIfMaxLengthLongerThanClassName))
+
+        assertThat(result).isEqualTo(LongClassName)
+    }
+
+    @Test
+    fun classWithoutPackage_FillSegmentsEqually() {
+        val result = underTest.abbreviate(LongClassName, 10, options(packageAbbreviationStrategy = PackageAbbreviationStrategy.FillSegmentsEqually))
+
+        assertThat(result).isEqualTo("ServiceW..")
+    }
+
+    @Test
+    fun classWithoutPackage_FillSegmentsFromStart() {
+        val result = underTest.abbreviate(LongClassName, 10, options(packageAbbreviationStrategy = PackageAbbreviationStrategy.FillSegmentsFromStart))
+
+        assertThat(result).isEqualTo("ServiceW..")
+    }
+
+    @Test
+    fun classWithoutPackage_FillSegmentsFromEnd() {
+        val result = underTest.abbreviate(LongClassName, 10, options(packageAbbreviationStrategy = PackageAbbreviationStrategy.FillSegmentsFromEnd))
+
+        assertThat(result).isEqualTo("ServiceW..")
+    }
+
+
+    /*          Deprecated String based API             */
+
+    @Test
+    fun deprecated_abbreviateClassName() {
+        val result = deprecatedApi.abbreviateClassName(LongClassName, 10, options())
+
+        assertThat(result).isEqualTo("ServiceW..")
+    }
+
+    @Test
+    fun deprecated_abbreviatePackageName() {
+        val result = deprecatedApi.abbreviatePackageName(LongPackageNameSegments, LongClassName.length + CountLongPackageNameSegments * 4,
+            LongClassName.length, options(PackageAbbreviationStrategy.FillSegmentsEqually))
+
+        assertThat(result).isEqualTo("org.com.pro.mod.sub.fea.ser")
+    }
+
+    @Test
+    fun deprecated_abbreviatePackageName_NoPackage() {
+        val result = deprecatedApi.abbreviatePackageName(emptyList(), LongClassName.length - 1, LongClassName.length,
+            options(MinPackageNameTooLongStrategy.KeepEvenIfLongerThanMaxLength))
+
+        assertThat(result).isNull()
+    }
+
+    @Test
+    fun deprecated_fillPackageSegments_FillSegmentsEqually() {
+        val result = deprecatedApi.fillPackageSegments(LongPackageNameSegments, LongClassName.length + CountLongPackageNameSegments * 4,
+            LongClassName.length, options(PackageAbbreviationStrategy.FillSegmentsEqually))
+
+        assertThat(result).isEqualTo("org.com.pro.mod.sub.fea.ser")
+    }
+
+    @Test
+    fun deprecated_fillPackageSegments_FillSegmentsFromStart() {
+        val result = deprecatedApi.fillPackageSegments(LongPackageNameSegments,
+            ShortClassName.length + LongPackageNameFirstCharPerSegmentOnly.length + 2 + 6 + 6 + 5,
+            ShortClassName.length, options(PackageAbbreviationStrategy.FillSegmentsFromStart))
+
+        assertThat(result).isEqualTo("org.company.project.module.s.f.s")
+    }
+
+    @Test
+    fun deprecated_fillPackageSegments_FillSegmentsFromEnd() {
+        val result = deprecatedApi.fillPackageSegments(LongPackageNameSegments,
+            ShortClassName.length + LongPackageNameFirstCharPerSegmentOnly.length + 6 + 6 + 8,
+            ShortClassName.length, options(PackageAbbreviationStrategy.FillSegmentsFromEnd))
+
+        assertThat(result).isEqualTo("o.c.p.m.submodule.feature.service")
+    }
+
+    @Test
+    fun deprecated_fillPathSegmentsEqually() {
+        val result = deprecatedApi.fillPathSegmentsEqually(LongClassName.length + CountLongPackageNameSegments * 4, LongClassName.length,
+            LongPackageNameSegments)
+
+        assertThat(result).isEqualTo("org.com.pro.mod.sub.fea.ser")
+    }
+
+    @Test
+    fun deprecated_fillPackageSegmentsInCustomOrder() {
+        val result = deprecatedApi.fillPackageSegments(LongPackageNameSegments,
+            ShortClassName.length + LongPackageNameFirstCharPerSegmentOnly.length + 6 + 8,
+            ShortClassName.length, listOf(6, 4, 5))
+
+        assertThat(result).isEqualTo("o.c.p.m.submodule.f.service")
+    }
+
+    @Test
+    fun deprecated_firstCharOfEachPackageSegment() {
+        val result = deprecatedApi.combine(deprecatedApi.firstCharOfEachPackageSegment(LongPackageNameSegments))
+
+        assertThat(result).isEqualTo(LongPackageNameFirstCharPerSegmentOnly.dropLast(1))
+    }
+
+
     private fun options(packageAbbreviationStrategy: PackageAbbreviationStrategy = ClassNameAbbreviatorOptions.Default.packageAbbreviation) =
         options(ClassNameAbbreviatorOptions.Default.classNameAbbreviation, packageAbbreviationStrategy = packageAbbreviationStrategy)
 
@@ -350,4 +471,32 @@ class ClassNameAbbreviatorTest {
     ) =
         ClassNameAbbreviatorOptions(classNameAbbreviationStrategy, minPackageNameTooLongStrategy, packageAbbreviationStrategy, classNameAbbreviationEllipsis)
 
-}
\ No newline at end of file
+}
+
+
+@Suppress("OVERRIDE_DEPRECATION", "DEPRECATION")
+private class DeprecatedApiClassNameAbbreviator : ClassNameAbbreviator() {
+
+    public override fun abbreviateClassName(className: String, maxLength: Int, options: ClassNameAbbreviatorOptions) =
+        super.abbreviateClassName(className, maxLength, options)
+
+    public override fun abbreviatePackageName(packageParts: List<String>, maxLength: Int, classNameLength: Int, options: ClassNameAbbreviatorOptions) =
+        super.abbreviatePackageName(packageParts, maxLength, classNameLength, options)
+
+    public override fun fillPackageSegments(packageParts: List<String>, maxLength: Int, classNameLength: Int, options: ClassNameAbbreviatorOptions) =
+        super.fillPackageSegments(packageParts, maxLength, classNameLength, options)
+
+    public override fun fillPathSegmentsEqually(maxLength: Int, classNameLength: Int, packageParts: List<String>) =
+        super.fillPathSegmentsEqually(maxLength, classNameLength, packageParts)
+
+    public override fun fillPackageSegments(packageParts: List<String>, maxLength: Int, classNameLength: Int,
+                                            packageSegmentIndicesInWhichOrderSegmentsShouldBeFilled: List<Int>) =
+        super.fillPackageSegments(packageParts, maxLength, classNameLength, packageSegmentIndicesInWhichOrderSegmentsShouldBeFilled)
+
+    public override fun firstCharOfEachPackageSegment(packageParts: List<String>) =
+        super.firstCharOfEachPackageSegment(packageParts)
+
+    public override fun combine(packageSegments: List<String>) =
+        super.combine(packageSegments)
+
+}
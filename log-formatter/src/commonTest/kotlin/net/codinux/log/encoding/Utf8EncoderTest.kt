@@ -0,0 +1,91 @@
+package net.codinux.log.encoding
+
+import assertk.assertThat
+import assertk.assertions.isEqualTo
+import kotlin.test.Test
+
+class Utf8EncoderTest {
+
+    companion object {
+        private const val Ascii = "Info  [org.company.UserService] (main) User created"
+
+        private const val TwoByteChars = "Grüße aus Köln"
+
+        private const val ThreeByteChars = "日志 €"
+
+        private const val SurrogatePairs = "Log 😀 entry"
+    }
+
+
+    private val underTest = Utf8Encoder()
+
+
+    @Test
+    fun ascii() {
+        assertEncodedAsStdLib(Ascii)
+    }
+
+    @Test
+    fun twoByteChars() {
+        assertEncodedAsStdLib(TwoByteChars)
+    }
+
+    @Test
+    fun threeByteChars() {
+        assertEncodedAsStdLib(ThreeByteChars)
+    }
+
+    @Test
+    fun surrogatePairs() {
+        assertEncodedAsStdLib(SurrogatePairs)
+    }
+
+    @Test
+    fun unpairedSurrogate() {
+        val result = underTest.encode("a\uD83Db")
+
+        assertThat(result.decodeToString()).isEqualTo("a?b")
+        assertThat(underTest.encodedLength("a\uD83Db")).isEqualTo(3)
+    }
+
+    @Test
+    fun encodeIntoWithOffset() {
+        val destination = ByteArray(20)
+
+        val endIndex = underTest.encodeInto(TwoByteChars, destination, 2, 0, 5)
+
+        assertThat(endIndex).isEqualTo(2 + 7)
+        assertThat(destination.copyOfRange(2, endIndex).decodeToString()).isEqualTo("Grüße")
+    }
+
+
+    @Test
+    fun indexOfMaxEncodedLength_AllFit() {
+        val result = underTest.indexOfMaxEncodedLength(TwoByteChars, 100)
+
+        assertThat(result).isEqualTo(TwoByteChars.length)
+    }
+
+    @Test
+    fun indexOfMaxEncodedLength_StopsBeforeMultiByteChar() {
+        val result = underTest.indexOfMaxEncodedLength(TwoByteChars, 3) // "Gr" = 2 bytes, "ü" = 2 bytes
+
+        assertThat(result).isEqualTo(2)
+    }
+
+    @Test
+    fun indexOfMaxEncodedLength_DoesNotSplitSurrogatePair() {
+        val result = underTest.indexOfMaxEncodedLength(SurrogatePairs, 7) // "Log " = 4 bytes, emoji = 4 bytes
+
+        assertThat(result).isEqualTo(4)
+    }
+
+
+    private fun assertEncodedAsStdLib(string: String) {
+        val expected = string.encodeToByteArray()
+
+        assertThat(underTest.encodedLength(string)).isEqualTo(expected.size)
+        assertThat(underTest.encode(string).toList()).isEqualTo(expected.toList())
+    }
+
+}
@@ -72,6 +72,59 @@ class FieldsLogEventFormatterTest {
     }
 
 
+    @Test
+    fun formatEventTo_AppendsToExistingContent() {
+        val builder = StringBuilder("prefix ")
+
+        FieldsLogEventFormatter().formatEventTo(EventWithoutThrowable, builder)
+
+        assertThat(builder.toString()).isEqualTo("prefix Info  UserService [main] Just a test message${LineSeparator.System}")
+    }
+
+    @Test
+    fun formatEventTo_EqualsFormatEvent() {
+        val underTest = FieldsLogEventFormatter()
+        val builder = StringBuilder()
+
+        underTest.formatEventTo(EventWithThrowable, builder)
+
+        assertThat(builder.toString()).isEqualTo(underTest.formatEvent(EventWithThrowable))
+    }
+
+
+    @Test
+    fun formatEvents() {
+        val underTest = FieldsLogEventFormatter()
+        val events = listOf(EventWithoutThrowable, EventWithThrowable, EventWithoutThrowable)
+
+        val result = underTest.formatEvents(events)
+
+        assertThat(result.size).isEqualTo(3)
+        assertThat(result.offsets.first()).isEqualTo(0)
+        assertThat(result.offsets.last()).isEqualTo(result.text.length)
+        events.forEachIndexed { index, event ->
+            assertThat(result[index]).isEqualTo(underTest.formatEvent(event))
+        }
+    }
+
+    @Test
+    fun formatEventsTo_AppendsToExistingContent() {
+        val builder = StringBuilder("prefix ")
+
+        val offsets = FieldsLogEventFormatter().formatEventsTo(listOf(EventWithoutThrowable), builder)
+
+        assertThat(offsets.toList()).isEqualTo(listOf(7, builder.length))
+    }
+
+    @Test
+    fun formatEvents_Empty() {
+        val result = FieldsLogEventFormatter().formatEvents(emptyList())
+
+        assertThat(result.size).isEqualTo(0)
+        assertThat(result.text.toString()).isEmpty()
+    }
+
+
     /*      Formatting          */
 
     @Test
@@ -148,6 +201,84 @@ class FieldsLogEventFormatterTest {
     }
 
 
+    /*      Derived formatters      */
+
+    @Test
+    fun derivedFormatterOverridingFormat() {
+        val underTest = FieldsLogEventFormatter(object : MessageFormatter() {
+            override fun format(event: LogEvent) = event.message.uppercase()
+        })
+
+        val result = underTest.formatEvent(EventWithoutThrowable)
+
+        assertThat(result).isEqualTo("JUST A TEST MESSAGE")
+    }
+
+    @Test
+    fun derivedFormatterOverridingGetField() {
+        val underTest = FieldsLogEventFormatter(object : ThreadNameFormatter(FieldFormat(minWidth = 10, pad = FieldFormat.Padding.Start)) {
+            override fun getField(event: LogEvent) = "#" + event.threadName
+        })
+
+        val result = underTest.formatEvent(EventWithoutThrowable)
+
+        assertThat(result).isEqualTo("     #main")
+    }
+
+    @Test
+    fun formatFieldsToGetsCalled() {
+        val underTest = object : FieldsLogEventFormatter(MessageFormatter()) {
+            override fun formatFieldsTo(fields: Collection<LogLinePartFormatter>, event: LogEvent, loggerName: PreparedLoggerName?,
+                                        builder: StringBuilder) {
+                builder.append("> ")
+                super.formatFieldsTo(fields, event, loggerName, builder)
+            }
+        }
+        val builder = StringBuilder()
+
+        underTest.formatEventTo(EventWithoutThrowable, builder)
+
+        assertThat(underTest.formatEvent(EventWithoutThrowable)).isEqualTo("> Just a test message")
+        assertThat(underTest.formatMessage(EventWithoutThrowable)).isEqualTo("> Just a test message")
+        assertThat(builder.toString()).isEqualTo("> Just a test message")
+    }
+
+
+    @Test
+    fun preparedLoggerNameGetsAppended() {
+        val loggerNameFormatter = LoggerNameFormatter(null, "10", formattedValuesCache = null)
+        val underTest = FieldsLogEventFormatter(loggerNameFormatter, LiteralFormatter(" - "), MessageFormatter())
+        val loggerName = underTest.prepareLoggerName(EventWithoutThrowable.loggerName)!!
+        val builder = StringBuilder()
+
+        underTest.formatEventTo(EventWithoutThrowable, loggerName, builder)
+
+        assertThat(loggerName.preparedBy).isSameInstanceAs(loggerNameFormatter)
+        assertThat(builder.toString()).isEqualTo(loggerName.formattedLoggerName + " - Just a test message")
+        assertThat(builder.toString()).isEqualTo(underTest.formatEvent(EventWithoutThrowable))
+    }
+
+    @Test
+    fun preparedLoggerNameOfOtherLoggerGetsIgnored() {
+        val underTest = FieldsLogEventFormatter(LoggerNameFormatter(), LiteralFormatter(" - "), MessageFormatter())
+        val loggerName = underTest.prepareLoggerName("OtherLogger")
+        val builder = StringBuilder()
+
+        underTest.formatEventTo(EventWithoutThrowable, loggerName, builder)
+
+        assertThat(builder.toString()).isEqualTo(EventWithoutThrowable.loggerName + " - Just a test message")
+    }
+
+    @Test
+    fun prepareLoggerName_NoLoggerNameFormatter() {
+        val underTest = FieldsLogEventFormatter(MessageFormatter())
+
+        val result = underTest.prepareLoggerName(EventWithoutThrowable.loggerName)
+
+        assertThat(result).isNull()
+    }
+
+
     /*      Single fields       */
 
     @Test
@@ -0,0 +1,142 @@
+package net.codinux.log.formatter.datetime
+
+import assertk.assertThat
+import assertk.assertions.*
+import net.dankito.datetime.LocalDateTime
+import net.dankito.datetime.format.pattern.DateTimeComponentFormatter
+import kotlin.test.Test
+
+class CachingDateTimeRendererTest {
+
+    companion object {
+        private val dateTime = LocalDateTime(2015, 10, 21, 9, 8, 7, 654_321_000)
+
+        private val sameSecond = LocalDateTime(2015, 10, 21, 9, 8, 7, 12_000_000)
+
+        private val nextSecond = LocalDateTime(2015, 10, 21, 9, 8, 8, 1_000_000)
+    }
+
+
+    @Test
+    fun compile_FractionInTheMiddle() {
+        val result = CompiledDateTimePattern("HH:mm:ss.SSS dd.MM.yyyy")
+
+        assertThat(result.isSplittable).isTrue()
+        assertThat(result.segments.map { it::class }).isEqualTo(listOf(
+            DateTimePatternSegment.SecondPrecision::class, DateTimePatternSegment.FractionOfSecond::class, DateTimePatternSegment.SecondPrecision::class
+        ))
+    }
+
+    @Test
+    fun compile_FractionLetterInQuotes_IsLiteral() {
+        val result = CompiledDateTimePattern("HH:mm 'SSS'")
+
+        assertThat(result.segments).hasSize(1)
+    }
+
+    @Test
+    fun compile_NanoOfDay_IsNotSplittable() {
+        val result = CompiledDateTimePattern("HH:mm N")
+
+        assertThat(result.isSplittable).isFalse()
+    }
+
+
+    @Test
+    fun compile_NumericFields_CompiledToEmitters() {
+        val result = CompiledDateTimePattern("dd.MM.yy 'at' HH:mm:ss.SSS")
+
+        assertThat(result.isCompiledToEmitters).isTrue()
+    }
+
+    @Test
+    fun compile_MonthName_IsNotCompiledToEmitters() {
+        val result = CompiledDateTimePattern("dd MMM yyyy")
+
+        assertThat(result.isSplittable).isTrue()
+        assertThat(result.isCompiledToEmitters).isFalse()
+    }
+
+    @Test
+    fun renderWithEmitters_EqualsFormatter() {
+        val pattern = "d.M.yy 'at' H:mm:ss.SSS ''"
+
+        val result = renderer(pattern).render(dateTime.toInstantAtSystemTimeZone())
+
+        assertThat(result).isEqualTo(DateTimeComponentFormatter.Default.format(dateTime, pattern))
+    }
+
+    @Test
+    fun fixedLayout() {
+        val underTest = DateTimeRenderer.forPattern(DateTimeRenderer.Iso8601Layout)
+
+        underTest.render(dateTime.toInstantAtSystemTimeZone())
+        val result = underTest.render(sameSecond.toInstantAtSystemTimeZone())
+
+        assertThat(underTest).isInstanceOf<FixedLayoutDateTimeRenderer>()
+        assertThat(result).isEqualTo("2015-10-21T09:08:07.012")
+    }
+
+    @Test
+    fun customFormatter_IsUsedForFixedLayout() {
+        val customFormatter = object : DateTimeComponentFormatter() {
+            override fun format(dateTime: LocalDateTime, pattern: String) = "custom $pattern"
+        }
+
+        val underTest = DateTimeRenderer.forPattern(DateTimeRenderer.Iso8601Layout, customFormatter)
+
+        assertThat(underTest.render(dateTime.toInstantAtSystemTimeZone())).isEqualTo("custom ${DateTimeRenderer.Iso8601Layout}")
+    }
+
+    @Test
+    fun customFormatter_IsUsedForCompiledPattern() {
+        val customFormatter = object : DateTimeComponentFormatter() {
+            override fun format(dateTime: LocalDateTime, pattern: String) = "custom $pattern"
+        }
+
+        val underTest = DateTimeRenderer.forPattern("HH:mm:ss.SSS", customFormatter)
+
+        assertThat(underTest.render(dateTime.toInstantAtSystemTimeZone())).isEqualTo("custom HH:mm:ss.SSS")
+    }
+
+    @Test
+    fun renderSameSecond_FractionGetsUpdated() {
+        val underTest = renderer("yyyy-MM-dd HH:mm:ss,SSS")
+
+        val first = underTest.render(dateTime.toInstantAtSystemTimeZone())
+        val second = underTest.render(sameSecond.toInstantAtSystemTimeZone())
+
+        assertThat(first).isEqualTo("2015-10-21 09:08:07,654")
+        assertThat(second).isEqualTo("2015-10-21 09:08:07,012")
+    }
+
+    @Test
+    fun renderNextSecond() {
+        val underTest = renderer("yyyy-MM-dd HH:mm:ss,SSS")
+
+        underTest.render(dateTime.toInstantAtSystemTimeZone())
+        val result = underTest.render(nextSecond.toInstantAtSystemTimeZone())
+
+        assertThat(result).isEqualTo("2015-10-21 09:08:08,001")
+    }
+
+    @Test
+    fun renderMicroseconds() {
+        val result = renderer("ss.SSSSSS").render(dateTime.toInstantAtSystemTimeZone())
+
+        assertThat(result).isEqualTo("07.654321")
+    }
+
+    @Test
+    fun renderPatternWithoutFraction_EqualsFormatter() {
+        val pattern = "dd.MM.yyyy HH:mm"
+
+        val result = renderer(pattern).render(dateTime.toInstantAtSystemTimeZone())
+
+        assertThat(result).isEqualTo(DateTimeComponentFormatter.Default.format(dateTime, pattern))
+    }
+
+
+    private fun renderer(pattern: String) = CachingDateTimeRenderer(CompiledDateTimePattern(pattern))
+
+}
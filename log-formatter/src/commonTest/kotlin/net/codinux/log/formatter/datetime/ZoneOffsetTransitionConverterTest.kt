@@ -0,0 +1,58 @@
+package net.codinux.log.formatter.datetime
+
+import assertk.assertThat
+import assertk.assertions.isEqualTo
+import net.dankito.datetime.Instant
+import net.dankito.datetime.LocalDateTime
+import kotlin.test.Test
+
+class ZoneOffsetTransitionConverterTest {
+
+    companion object {
+        private const val TransitionEpochSecond = 1_445_734_800L // 2015-10-25 01:00:00 UTC, end of summer time in Europe/Berlin
+    }
+
+
+    private val rules = object : TimeZoneRules {
+        var countQueries = 0
+
+        override val zoneId = "Test/Zone"
+
+        override fun getOffsetPeriod(epochSecond: Long): ZoneOffsetPeriod {
+            countQueries++
+
+            return if (epochSecond < TransitionEpochSecond) ZoneOffsetPeriod(Long.MIN_VALUE, TransitionEpochSecond, 2 * 3600)
+                    else ZoneOffsetPeriod(TransitionEpochSecond, Long.MAX_VALUE, 3600)
+        }
+    }
+
+    private val underTest = ZoneOffsetTransitionConverter(rules)
+
+
+    @Test
+    fun offsetGetsAdded() {
+        val result = underTest.toLocalDateTime(Instant(TransitionEpochSecond - 1, 5))
+
+        assertThat(result).isEqualTo(LocalDateTime(2015, 10, 25, 2, 59, 59, 5))
+    }
+
+    @Test
+    fun periodGetsCached() {
+        underTest.toLocalDateTime(Instant(TransitionEpochSecond - 60, 0))
+        underTest.toLocalDateTime(Instant(TransitionEpochSecond - 30, 0))
+        underTest.toLocalDateTime(Instant(TransitionEpochSecond - 1, 0))
+
+        assertThat(rules.countQueries).isEqualTo(1)
+    }
+
+    @Test
+    fun afterTransition() {
+        underTest.toLocalDateTime(Instant(TransitionEpochSecond - 1, 0))
+
+        val result = underTest.toLocalDateTime(Instant(TransitionEpochSecond, 0))
+
+        assertThat(result).isEqualTo(LocalDateTime(2015, 10, 25, 2, 0, 0, 0))
+        assertThat(rules.countQueries).isEqualTo(2)
+    }
+
+}
@@ -4,13 +4,18 @@ import assertk.assertThat
 import assertk.assertions.isEqualTo
 import net.codinux.log.LogEvent
 import net.codinux.log.LogLevel
+import net.codinux.log.test.TestPlatform
+import net.dankito.datetime.Instant
 import net.dankito.datetime.LocalDateTime
+import net.dankito.datetime.format.pattern.DateTimeComponentFormatter
 import kotlin.test.Test
 
 class DateTimeFormatterTest {
 
     companion object {
         private val dateTime = LocalDateTime(2015, 10, 21, 9, 8, 7, 654_321_000)
+
+        private const val DefaultPattern = DateTimeFormatter.DefaultDateTimeFormat
     }
 
 
@@ -40,6 +45,53 @@ class DateTimeFormatterTest {
     }
 
 
+    @Test
+    fun derivedFormatterOverridesDateTimePattern() {
+        val underTest = object : DateTimeFormatter() {
+            override val dateTimePattern: String
+                get() = "dd.MM.yyyy"
+        }
+
+        val result = underTest.format(event())
+
+        assertThat(result).isEqualTo("21.10.2015")
+    }
+
+    @Test
+    fun derivedFormatterOverridesDateTimePatternWithProperty() {
+        val underTest = object : DateTimeFormatter() {
+            override val dateTimePattern: String? = "dd.MM.yyyy"
+        }
+
+        val result = underTest.format(event())
+
+        assertThat(result).isEqualTo("21.10.2015")
+    }
+
+    @Test
+    fun derivedFormatterOverridesTimeZoneWithProperty() {
+        val underTest = object : DateTimeFormatter(null, "HH:mm") {
+            override val timeZone: String? = "UTC"
+        }
+
+        val result = underTest.format(event(Instant(1_445_411_287L, 654_321_000))) // 2015-10-21 07:08:07,654 UTC
+
+        assertThat(result).isEqualTo("07:08")
+    }
+
+    @Test
+    fun derivedFormatterOverridesFirstOption() {
+        val underTest = object : DateTimeFormatter(null, "HH:mm") {
+            override val firstOption: String
+                get() = "yyyy"
+        }
+
+        val result = underTest.format(event())
+
+        assertThat(result).isEqualTo("2015")
+    }
+
+
     @Test
     fun patternEnclosingInQuotes() {
         val pattern = "\"dd.MM.yyyy\""
@@ -59,6 +111,16 @@ class DateTimeFormatterTest {
     }
 
 
+    @Test
+    fun patternContainingCommaEnclosedInQuotes() {
+        val pattern = "\"HH:mm:ss,SSS\""
+
+        val result = DateTimeFormatter(null, pattern).format(event())
+
+        assertThat(result).isEqualTo("09:08:07,654")
+    }
+
+
     @Test
     fun timeOnly() {
         val pattern = "HH:mm:ss"
@@ -99,8 +161,62 @@ class DateTimeFormatterTest {
     }
 
 
-    private fun event(dateTime: LocalDateTime = Companion.dateTime) = LogEvent(
-        dateTime.toInstantAtSystemTimeZone(),
+    @Test
+    fun iso8601() {
+        val result = DateTimeFormatter(null, "yyyy-MM-dd'T'HH:mm:ss.SSS").format(event())
+
+        assertThat(result).isEqualTo("2015-10-21T09:08:07.654")
+    }
+
+    @Test
+    fun logbackIso8601Name() {
+        val result = DateTimeFormatter(null, "ISO8601").format(event())
+
+        assertThat(result).isEqualTo("2015-10-21 09:08:07,654")
+    }
+
+    @Test
+    fun epochMillis() {
+        val timestamp = dateTime.toInstantAtSystemTimeZone()
+
+        val result = DateTimeFormatter(null, "UNIX_MILLIS").format(event())
+
+        assertThat(result).isEqualTo(timestamp.toEpochMilliseconds().toString())
+    }
+
+    @Test
+    fun patternWithTextField_FallsBackToDateTimeComponentFormatter() {
+        val result = DateTimeFormatter(null, "dd MMM yyyy").format(event())
+
+        assertThat(result).isEqualTo(DateTimeComponentFormatter.Default.format(dateTime, "dd MMM yyyy"))
+    }
+
+
+    @Test
+    fun utcTimeZone() {
+        val timestamp = Instant(1_445_411_287L, 654_321_000) // 2015-10-21 07:08:07,654 UTC
+
+        val result = DateTimeFormatter(null, "\"$DefaultPattern\",UTC").format(event(timestamp))
+
+        assertThat(result).isEqualTo("2015-10-21 07:08:07,654")
+    }
+
+    @Test
+    fun namedTimeZone() {
+        if (TestPlatform.SupportsNamedTimeZones) {
+            val timestamp = Instant(1_445_411_287L, 654_321_000) // 2015-10-21 07:08:07,654 UTC
+
+            val result = DateTimeFormatter(null, "\"$DefaultPattern\",Europe/Berlin").format(event(timestamp))
+
+            assertThat(result).isEqualTo("2015-10-21 09:08:07,654")
+        }
+    }
+
+
+    private fun event(dateTime: LocalDateTime = Companion.dateTime) = event(dateTime.toInstantAtSystemTimeZone())
+
+    private fun event(timestamp: Instant) = LogEvent(
+        timestamp,
         LogLevel.Info, "Test message", "DateTimeFormatterTest"
     )
 
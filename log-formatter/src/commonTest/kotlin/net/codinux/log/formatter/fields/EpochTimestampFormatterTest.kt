@@ -0,0 +1,56 @@
+package net.codinux.log.formatter.fields
+
+import assertk.assertThat
+import assertk.assertions.isEqualTo
+import net.codinux.log.LogEvent
+import net.codinux.log.LogLevel
+import net.codinux.log.formatter.pattern.PatternParser
+import net.dankito.datetime.Instant
+import kotlin.test.Test
+
+class EpochTimestampFormatterTest {
+
+    companion object {
+        private val timestamp = Instant(1_445_411_287L, 654_321_987)
+    }
+
+
+    @Test
+    fun epochSeconds() {
+        assertThat(format("%epochSeconds")).isEqualTo("1445411287")
+    }
+
+    @Test
+    fun epochMillis() {
+        assertThat(format("%epochMillis")).isEqualTo("1445411287654")
+    }
+
+    @Test
+    fun epochMicros() {
+        assertThat(format("%epochMicros")).isEqualTo("1445411287654321")
+    }
+
+    @Test
+    fun epochNanos() {
+        assertThat(format("%epochNanos")).isEqualTo("1445411287654321987")
+    }
+
+    @Test
+    fun relative() {
+        val underTest = RelativeTimeFormatter(startTime = Instant(1_445_411_280L, 0))
+
+        assertThat(underTest.format(event())).isEqualTo("7654")
+    }
+
+
+    private fun format(pattern: String): String {
+        val builder = StringBuilder()
+
+        PatternParser.Default.parse(pattern).forEach { it.formatTo(event(), builder) }
+
+        return builder.toString()
+    }
+
+    private fun event() = LogEvent(timestamp, LogLevel.Info, "Test message", "EpochTimestampFormatterTest")
+
+}
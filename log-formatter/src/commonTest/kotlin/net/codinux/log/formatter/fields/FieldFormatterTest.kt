@@ -0,0 +1,69 @@
+package net.codinux.log.formatter.fields
+
+import assertk.assertThat
+import assertk.assertions.isEqualTo
+import net.codinux.log.LogEvent
+import net.codinux.log.LogLevel
+import net.codinux.log.formatter.FieldsLogEventFormatter
+import kotlin.test.Test
+
+class FieldFormatterTest {
+
+    companion object {
+        private const val message = "Test message"
+    }
+
+
+    @Test
+    fun padStart() {
+        assertFormatToEqualsFormat(FieldFormat(minWidth = 16, pad = FieldFormat.Padding.Start), "    $message")
+    }
+
+    @Test
+    fun padEnd() {
+        assertFormatToEqualsFormat(FieldFormat(minWidth = 16, pad = FieldFormat.Padding.End), "$message    ")
+    }
+
+    @Test
+    fun truncateStart() {
+        assertFormatToEqualsFormat(FieldFormat(maxWidth = 7, truncate = FieldFormat.Truncate.Start), "message")
+    }
+
+    @Test
+    fun truncateEnd() {
+        assertFormatToEqualsFormat(FieldFormat(maxWidth = 4, truncate = FieldFormat.Truncate.End), "Test")
+    }
+
+    @Test
+    fun valueFitsIntoWidth() {
+        assertFormatToEqualsFormat(FieldFormat(minWidth = 4, maxWidth = 20), message)
+    }
+
+    @Test
+    fun derivedFormatterOverridingFormatValue() {
+        val underTest = object : MessageFormatter(FieldFormat(minWidth = 16, pad = FieldFormat.Padding.End)) {
+            override fun formatValue(value: String, format: FieldFormat) = super.formatValue(value, format).replace(' ', '_')
+        }
+        val event = LogEvent(LogLevel.Info, message, "TestLogger")
+
+        val builder = StringBuilder()
+        underTest.formatTo(event, builder)
+
+        assertThat(builder.toString()).isEqualTo("Test_message____")
+        assertThat(FieldsLogEventFormatter(underTest).formatEvent(event)).isEqualTo("Test_message____")
+    }
+
+
+
+    private fun assertFormatToEqualsFormat(format: FieldFormat, expected: String) {
+        val underTest = MessageFormatter(format)
+        val event = LogEvent(LogLevel.Info, message, "TestLogger")
+
+        val builder = StringBuilder("prefix ")
+        underTest.formatTo(event, builder)
+
+        assertThat(underTest.format(event)).isEqualTo(expected)
+        assertThat(builder.toString()).isEqualTo("prefix $expected")
+    }
+
+}
@@ -2,8 +2,12 @@ package net.codinux.log.formatter.fields
 
 import assertk.assertThat
 import assertk.assertions.isEqualTo
+import assertk.assertions.isNull
+import assertk.assertions.isSameInstanceAs
 import net.codinux.log.LogEvent
 import net.codinux.log.LogLevel
+import net.codinux.log.classname.ClassNameAbbreviator
+import net.codinux.log.classname.ClassNameAbbreviatorOptions
 import kotlin.test.Test
 
 class LoggerNameFormatterTest {
@@ -74,8 +78,123 @@ class LoggerNameFormatterTest {
     }
 
 
+    @Test
+    fun abbreviatedAndPaddedNameIsCached() {
+        val underTest = LoggerNameFormatter(FieldFormat(minWidth = 12, pad = FieldFormat.Padding.End), loggerClassName.length.toString())
+
+        val first = underTest.format(event())
+        val second = underTest.format(event())
+
+        assertThat(first).isEqualTo("$loggerClassName ")
+        assertThat(second).isSameInstanceAs(first)
+    }
+
+    @Test
+    fun cacheDoesNotMixUpLoggerNames() {
+        val underTest = LoggerNameFormatter(null, loggerClassName.length.toString())
+
+        underTest.format(event())
+        val result = underTest.format(event("org.company.project.feature.service.OrderService"))
+
+        assertThat(result).isEqualTo("OrderService")
+    }
+
+    @Test
+    fun cacheDisabled() {
+        val underTest = LoggerNameFormatter(null, (loggerClassName.length + 1).toString(), formattedValuesCache = null)
+
+        val result = underTest.format(event())
+
+        assertThat(result).isEqualTo("o.c.p.f.s." + loggerClassName)
+    }
+
+    @Test
+    fun formatTo() {
+        val underTest = LoggerNameFormatter(null, (loggerClassName.length + 1).toString())
+        val builder = StringBuilder("Logger: ")
+
+        underTest.formatTo(event(), builder)
+        builder.append(", ")
+        underTest.formatTo(event(loggerClassName), builder)
+
+        assertThat(builder.toString()).isEqualTo("Logger: o.c.p.f.s.$loggerClassName, $loggerClassName")
+    }
+
+
+    @Test
+    fun prepare() {
+        val underTest = LoggerNameFormatter(FieldFormat(minWidth = 12, pad = FieldFormat.Padding.Start), loggerClassName.length.toString())
+
+        val prepared = underTest.prepare(loggerName)
+
+        assertThat(prepared.loggerName).isEqualTo(loggerName)
+        assertThat(prepared.formattedLoggerName).isEqualTo(" $loggerClassName")
+        assertThat(underTest.prepare(loggerName)).isSameInstanceAs(prepared)
+        assertThat(underTest.getPrepared(loggerName)).isSameInstanceAs(prepared)
+    }
+
+    @Test
+    fun formatPreparedLoggerName() {
+        val abbreviator = CountingClassNameAbbreviator()
+        val underTest = LoggerNameFormatter(null, (loggerClassName.length + 1).toString(), abbreviator, formattedValuesCache = null)
+        val prepared = underTest.prepare(loggerName)
+        val builder = StringBuilder()
+
+        underTest.formatTo(event(), prepared, builder)
+        underTest.formatTo(event(), prepared, builder)
+
+        assertThat(builder.toString()).isEqualTo("o.c.p.f.s.$loggerClassName".repeat(2))
+        assertThat(abbreviator.countAbbreviateCalls).isEqualTo(1)
+    }
+
+    @Test
+    fun formatLoggerNamePreparedForOtherLogger() {
+        val underTest = LoggerNameFormatter(null, loggerClassName.length.toString())
+        val prepared = underTest.prepare("org.company.project.feature.service.OrderService")
+        val builder = StringBuilder()
+
+        underTest.formatTo(event(), prepared, builder)
+
+        assertThat(builder.toString()).isEqualTo(loggerClassName)
+    }
+
+    @Test
+    fun formatLoggerNamePreparedByOtherFormatter() {
+        val underTest = LoggerNameFormatter(null, loggerClassName.length.toString())
+        val prepared = LoggerNameFormatter().prepare(loggerName)
+        val builder = StringBuilder()
+
+        underTest.formatTo(event(), prepared, builder)
+
+        assertThat(builder.toString()).isEqualTo(loggerClassName)
+    }
+
+    @Test
+    fun unpreparedLoggerNameIsFormattedNormally() {
+        val underTest = LoggerNameFormatter(FieldFormat(minWidth = 13, pad = FieldFormat.Padding.End), loggerClassName.length.toString())
+        underTest.prepare(loggerName)
+
+        val result = underTest.format(event("org.company.project.feature.service.OrderService"))
+
+        assertThat(result).isEqualTo("OrderService ")
+        assertThat(underTest.getPrepared("org.company.project.feature.service.OrderService")).isNull()
+    }
+
+
     private fun event(loggerName: String = Companion.loggerName) = LogEvent(
         LogLevel.Info, "Test message", loggerName
     )
 
-}
\ No newline at end of file
+
+    private class CountingClassNameAbbreviator : ClassNameAbbreviator() {
+
+        var countAbbreviateCalls = 0
+
+        override fun abbreviate(qualifiedClassName: String, maxLength: Int, options: ClassNameAbbreviatorOptions): String {
+            countAbbreviateCalls++
+
+            return super.abbreviate(qualifiedClassName, maxLength, options)
+        }
+    }
+
+}
@@ -88,6 +88,26 @@ class ThrowableFormatterTest {
         assertThat(result).endsWith(LineSeparator.System)
     }
 
+    @Test
+    fun formatTo_AppendsSameAsFormat() {
+        val formatter = ThrowableFormatter()
+        val event = event()
+        val builder = StringBuilder("Test message: ")
+
+        formatter.formatTo(event, builder)
+
+        assertThat(builder.toString()).isEqualTo("Test message: " + formatter.format(event))
+    }
+
+    @Test
+    fun formatTo_NoException() {
+        val builder = StringBuilder("Test message")
+
+        ThrowableFormatter().formatTo(event(null), builder)
+
+        assertThat(builder.toString()).isEqualTo("Test message")
+    }
+
 
     private fun event(throwable: Throwable? = Throwable("Outer Exception", Throwable("Root cause"))) = LogEvent(
         LogLevel.Error, "Test message", "ThrowableFormatterTest", null, throwable
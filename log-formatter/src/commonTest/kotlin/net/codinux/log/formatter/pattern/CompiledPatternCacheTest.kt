@@ -0,0 +1,85 @@
+package net.codinux.log.formatter.pattern
+
+import assertk.assertThat
+import assertk.assertions.*
+import net.codinux.log.LogEvent
+import net.codinux.log.LogLevel
+import net.codinux.log.formatter.PatternLogEventFormatter
+import net.codinux.log.formatter.fields.FieldFormat
+import net.codinux.log.formatter.fields.FieldFormatter
+import net.codinux.log.formatter.fields.MessageFormatter
+import net.dankito.datetime.Instant
+import kotlin.test.Test
+
+class CompiledPatternCacheTest {
+
+    private val underTest = CompiledPatternCache()
+
+
+    @Test
+    fun samePatternAndParser_ReturnsCachedInstance() {
+        val first = underTest.getOrCompile(PatternParser.DefaultPattern)
+
+        val second = underTest.getOrCompile(PatternParser.DefaultPattern)
+
+        assertThat(second).isSameInstanceAs(first)
+    }
+
+    @Test
+    fun equalParsers_ShareEntry() {
+        val first = underTest.getOrCompile(PatternParser.DefaultPattern, PatternParser())
+
+        val second = underTest.getOrCompile(PatternParser.DefaultPattern, PatternParser())
+
+        assertThat(second).isSameInstanceAs(first)
+    }
+
+    @Test
+    fun differentPatterns() {
+        val first = underTest.getOrCompile("%msg")
+
+        val second = underTest.getOrCompile("%msg%n")
+
+        assertThat(first.parts).hasSize(1)
+        assertThat(second.parts).hasSize(2)
+    }
+
+    @Test
+    fun differentCustomFieldsParsers_DoNotShareEntry() {
+        val customFieldsParser: (String, FieldFormat?, String?) -> FieldFormatter? =
+            { _, format, _ -> MessageFormatter(format) }
+
+        val first = underTest.getOrCompile("%msg", PatternParser())
+        val second = underTest.getOrCompile("%msg", PatternParser(customFieldsParser = customFieldsParser))
+
+        assertThat(second).isNotSameInstanceAs(first)
+    }
+
+    @Test
+    fun patternWithRelativeTime_IsNotCached() {
+        val first = underTest.getOrCompile("%relative %msg")
+
+        val second = underTest.getOrCompile("%relative %msg")
+
+        assertThat(first.isShareable).isFalse()
+        assertThat(second).isNotSameInstanceAs(first)
+        assertThat(second.parts.first()).isNotSameInstanceAs(first.parts.first())
+    }
+
+    @Test
+    fun relativeTime_FormattersCreatedAtDifferentTimes_HaveOwnStartTime() {
+        val first = PatternLogEventFormatter("%relative", compiledPatternCache = underTest)
+
+        val secondCreationTime = Instant.now().toEpochMilliseconds() + 5
+        while (Instant.now().toEpochMilliseconds() < secondCreationTime) { } // wait till time has elapsed
+
+        val second = PatternLogEventFormatter("%relative", compiledPatternCache = underTest)
+        val event = LogEvent(Instant.now(), LogLevel.Info, "Test message", "CompiledPatternCacheTest")
+
+        val millisSinceFirst = first.formatEvent(event).toLong()
+        val millisSinceSecond = second.formatEvent(event).toLong()
+
+        assertThat(millisSinceFirst).isGreaterThanOrEqualTo(millisSinceSecond + 5)
+    }
+
+}
@@ -1,5 +1,6 @@
 package net.codinux.log.formatter.pattern
 
+import assertk.assertFailure
 import assertk.assertThat
 import assertk.assertions.*
 import net.codinux.log.LogEvent
@@ -34,6 +35,78 @@ class PatternParserTest {
         assertThat(result[8]).isInstanceOf<ThrowableFormatter>()
     }
 
+    @Test
+    fun parse_WithRegex_ReturnsSameParts() {
+        val lexerResult = underTest.parse(PatternParser.DefaultPattern)
+
+        val regexResult = PatternParser(PatternParser.DefaultParsePatternRegex).parse(PatternParser.DefaultPattern)
+
+        assertThat(regexResult.map { it::class }).isEqualTo(lexerResult.map { it::class })
+        assertThat(regexResult.map { it.format(Event) }).isEqualTo(lexerResult.map { it.format(Event) })
+    }
+
+    @Test
+    fun parse_WithRegexAndCustomFieldsParser() {
+        val underTest = PatternParser(PatternParser.DefaultParsePatternRegex, { fieldSpecifier, _, _ ->
+            if (fieldSpecifier == "custom") LineSeparatorFormatter("custom") else null
+        })
+
+        val result = underTest.parse("%msg %custom")
+
+        assertThat(result.joinToString("") { it.format(Event) }).isEqualTo("Just a test message custom")
+    }
+
+
+    /*          Literals and escapes          */
+
+    @Test
+    fun escapedPercentSign() {
+        val result = underTest.parse("100%% %msg")
+
+        assertThat(result).hasSize(2)
+        assertThat(result[0].format(Event)).isEqualTo("100% ")
+        assertThat(result[1]).isInstanceOf<MessageFormatter>()
+    }
+
+    @Test
+    fun escapedPercentSignOnly() {
+        val result = underTest.parse("%%")
+
+        assertThat(result).hasSize(1)
+        assertThat(result[0].format(Event)).isEqualTo("%")
+    }
+
+
+    /*          Syntax errors           */
+
+    @Test
+    fun percentSignAtEnd_ReportsPosition() {
+        assertFailure { underTest.parse("%msg %") }
+            .isInstanceOf<PatternParseException>()
+            .prop(PatternParseException::index).isEqualTo(6)
+    }
+
+    @Test
+    fun missingMinWidthAfterMinus_ReportsPosition() {
+        assertFailure { underTest.parse("[%-level]") }
+            .isInstanceOf<PatternParseException>()
+            .prop(PatternParseException::index).isEqualTo(3)
+    }
+
+    @Test
+    fun missingMaxWidthAfterDot_ReportsPosition() {
+        assertFailure { underTest.parse("%5.level") }
+            .isInstanceOf<PatternParseException>()
+            .prop(PatternParseException::index).isEqualTo(3)
+    }
+
+    @Test
+    fun unclosedOptions_ReportsPosition() {
+        assertFailure { underTest.parse("%msg %logger{36") }
+            .isInstanceOf<PatternParseException>()
+            .prop(PatternParseException::index).isEqualTo(12)
+    }
+
 
     /*          Format specifiers         */
 
@@ -70,6 +143,35 @@ class PatternParserTest {
     }
 
 
+    /*          Options           */
+
+    @Test
+    fun invalidLoggerNameLength_FailsAtParseTime() {
+        assertFailure { underTest.parse("%logger{abc}") }
+            .isInstanceOf<IllegalArgumentException>()
+    }
+
+    @Test
+    fun jbossLoggingLoggerNamePrecision_IsIgnored() {
+        val result = underTest.parse("[%c{3.}]")
+
+        assertThat(result.filterIsInstance<LoggerNameFormatter>().first().format(Event)).isEqualTo(Event.loggerName)
+    }
+
+    @Test
+    fun invalidMaxNestedThrowables_FailsAtParseTime() {
+        assertFailure { underTest.parse("%msg%n%ex{5,abc}") }
+            .isInstanceOf<IllegalArgumentException>()
+    }
+
+    @Test
+    fun logbackThrowableOptions() {
+        val result = underTest.parse("%ex{short}%ex{full}")
+
+        assertThat(result).hasSize(2)
+    }
+
+
     private fun assertFieldFormat(result: List<LogLinePartFormatter>, minWidth: Int? = null, maxWidth: Int? = null,
                                   padding: FieldFormat.Padding = FieldFormat.Padding.Start, truncate: FieldFormat.Truncate = FieldFormat.Truncate.Start): String {
         assertThat(result).hasSize(1)
@@ -0,0 +1,82 @@
+package net.codinux.log.formatter.plan
+
+import assertk.assertThat
+import assertk.assertions.isEqualTo
+import net.codinux.kotlin.text.LineSeparator
+import net.codinux.log.LogEvent
+import net.codinux.log.LogLevel
+import net.codinux.log.formatter.fields.*
+import net.codinux.log.formatter.pattern.PatternParser
+import kotlin.test.Test
+
+class FormatPlanTest {
+
+    companion object {
+        private val Event = LogEvent(LogLevel.Info, "Just a test message", "UserService", "main")
+    }
+
+
+    @Test
+    fun adjacentLiteralsAndLineSeparatorsGetMerged() {
+        val underTest = FormatPlan(listOf(
+            MessageFormatter(),
+            LiteralFormatter(" - "),
+            LiteralFormatter("end"),
+            LineSeparatorFormatter(LineSeparator.Unix),
+            LineSeparatorFormatter(LineSeparator.Unix),
+            ThreadNameFormatter()
+        ))
+
+        assertThat(underTest.countSteps).isEqualTo(3)
+        assertThat(underTest.format(Event)).isEqualTo("Just a test message - end\n\nmain")
+    }
+
+    @Test
+    fun lineSeparatorWithFormatDoesNotGetMerged() {
+        val underTest = FormatPlan(listOf(
+            LiteralFormatter("["),
+            LineSeparatorFormatter(LineSeparator.Unix, FieldFormat(minWidth = 3)),
+            LiteralFormatter("]")
+        ))
+
+        assertThat(underTest.countSteps).isEqualTo(3)
+        assertThat(underTest.format(Event)).isEqualTo("[  \n]")
+    }
+
+    @Test
+    fun derivedLiteralFormatterDoesNotGetMerged() {
+        val underTest = FormatPlan(listOf(
+            LiteralFormatter("["),
+            object : LiteralFormatter("literal") {
+                override fun format(event: LogEvent) = event.loggerName
+                override fun formatTo(event: LogEvent, builder: StringBuilder) { builder.append(format(event)) }
+            },
+            LiteralFormatter("]")
+        ))
+
+        assertThat(underTest.countSteps).isEqualTo(3)
+        assertThat(underTest.format(Event)).isEqualTo("[UserService]")
+    }
+
+    @Test
+    fun derivedFieldFormatterGetsFormattedWithFormat() {
+        val underTest = FormatPlan(listOf(
+            object : LoggerNameFormatter() {
+                override fun format(event: LogEvent) = "logger=" + event.loggerName
+            }
+        ))
+
+        assertThat(underTest.format(Event)).isEqualTo("logger=UserService")
+    }
+
+    @Test
+    fun defaultPattern() {
+        val fields = PatternParser.Default.parse(PatternParser.DefaultPattern)
+
+        val underTest = FormatPlan(fields)
+
+        assertThat(underTest.countSteps).isEqualTo(9)
+        assertThat(underTest.format(Event)).isEqualTo(fields.joinToString("") { it.format(Event) })
+    }
+
+}
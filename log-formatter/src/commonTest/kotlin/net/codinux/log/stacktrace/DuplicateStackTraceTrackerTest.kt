@@ -0,0 +1,120 @@
+package net.codinux.log.stacktrace
+
+import assertk.assertThat
+import assertk.assertions.*
+import org.example.log.stack.StackTraceGenerator
+import kotlin.test.Test
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.TestTimeSource
+
+class DuplicateStackTraceTrackerTest {
+
+    private val timeSource = TestTimeSource()
+
+    private val tracker = DuplicateStackTraceTracker(window = 1.minutes, timeSource = timeSource)
+
+    private val options = StackTraceFormatterOptions(lineSeparator = "\n")
+
+    private val underTest = StackTraceFormatter(options, duplicateStackTraceTracker = tracker)
+
+
+    @Test
+    fun firstOccurrenceIsFormattedInFull() {
+        val throwable = StackTraceGenerator.generateCausedBy()
+
+        val result = underTest.format(throwable)
+
+        val fullStackTrace = StackTraceFormatter(options).format(throwable)
+        assertThat(result).startsWith(fullStackTrace + "\n[stack trace #")
+        assertThat(result).endsWith("]")
+    }
+
+    @Test
+    fun duplicatesAreSummarized() {
+        val (first, second, third) = listOf("#1", "#2", "#3").map { message -> IllegalStateException(message) }
+
+        val id = underTest.format(first).substringAfterLast("[stack trace #").substringBefore("]")
+        underTest.format(second)
+        val result = underTest.format(third)
+
+        assertThat(id).hasLength(16)
+        assertThat(result).isEqualTo("$third [same stack trace as #$id, seen 3 times]")
+    }
+
+    @Test
+    fun differentStackTracesAreNotSummarized() {
+        underTest.format(StackTraceGenerator.generateSingle())
+        val result = underTest.format(StackTraceGenerator.generateCausedBy())
+
+        assertThat(result).doesNotContain("same stack trace as")
+    }
+
+    @Test
+    fun stackTraceIsFormattedInFullAfterWindowPassed() {
+        val throwable = StackTraceGenerator.generateSingle()
+
+        underTest.format(throwable)
+        timeSource += 2.minutes
+        val result = underTest.format(throwable)
+
+        assertThat(result).doesNotContain("same stack trace as")
+        assertThat(result).contains("[stack trace #")
+    }
+
+    @Test
+    fun idLineIsNotCropped() {
+        val underTest = StackTraceFormatter(options.copy(maxStackTraceStringLength = 200), duplicateStackTraceTracker = tracker)
+
+        val result = underTest.format(StackTraceGenerator.generateTwoCausedBy())
+
+        assertThat(result).hasLength(200)
+        assertThat(result).endsWith("]")
+        assertThat(result).contains("...\n[stack trace #")
+    }
+
+    @Test
+    fun idLineIsNotCropped_Utf8Bytes() {
+        val underTest = StackTraceFormatter(options.copy(maxStackTraceStringLength = 200, maxStackTraceStringLengthUnit = StringLengthUnit.Utf8Bytes,
+            messageLineIndent = "→ "), duplicateStackTraceTracker = tracker)
+
+        val result = underTest.format(StackTraceGenerator.generateTwoCausedBy())
+
+        assertThat(result.encodeToByteArray().size).isLessThanOrEqualTo(200)
+        assertThat(result).endsWith("→ [stack trace #" + result.substringAfterLast("#"))
+    }
+
+    @Test
+    fun sameHashOfDifferentStackTrace_IsNotADuplicate() {
+        val first = StackTraceFingerprint(42L, listOf("java.lang.IllegalStateException"), listOf("java.lang.IllegalStateException", listOf("at A.a(A.kt:1)")))
+        val collision = StackTraceFingerprint(42L, listOf("java.lang.IllegalStateException"), listOf("java.lang.IllegalStateException", listOf("at B.b(B.kt:2)")))
+
+        tracker.registerOccurrence(first)
+        val result = tracker.registerOccurrence(collision)
+
+        assertThat(result.isFirst).isTrue()
+        assertThat(result.id).isEqualTo("000000000000002a")
+    }
+
+
+    @Test
+    fun fingerprintOfExtractedStackTrace_IgnoresMessages() {
+        val (first, second) = listOf("#1", "#2").map { message -> StackTraceExtractor.Default.extractStackTrace(IllegalStateException(message)) }
+
+        val result = StackTraceFingerprint.of(second)
+
+        assertThat(result.hash).isEqualTo(StackTraceFingerprint.of(first).hash)
+        assertThat(result.messageLines).containsExactly(second.messageLine)
+    }
+
+    @Test
+    fun fingerprintOfExtractedStackTrace_DifferentStackTraces() {
+        val single = StackTraceExtractor.Default.extractStackTrace(StackTraceGenerator.generateSingle())
+        val causedBy = StackTraceExtractor.Default.extractStackTrace(StackTraceGenerator.generateCausedBy())
+
+        val result = StackTraceFingerprint.of(causedBy)
+
+        assertThat(result.hash).isNotEqualTo(StackTraceFingerprint.of(single).hash)
+        assertThat(result.messageLines).hasSize(2)
+    }
+
+}
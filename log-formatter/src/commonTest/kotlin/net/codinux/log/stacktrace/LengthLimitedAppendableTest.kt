@@ -0,0 +1,72 @@
+package net.codinux.log.stacktrace
+
+import assertk.assertThat
+import assertk.assertions.*
+import net.codinux.log.encoding.Utf8Encoder
+import kotlin.test.Test
+
+class LengthLimitedAppendableTest {
+
+    companion object {
+        private const val Emoji = "😀" // 4 bytes in UTF-8
+    }
+
+
+    @Test
+    fun utf8Bytes_SurrogatePairAppendedCharByChar_CountsFourBytes() {
+        val target = StringBuilder()
+        val underTest = utf8BytesLimited(target, 7)
+
+        underTest.append("ab")
+        underTest.append(Emoji[0])
+        underTest.append(Emoji[1])
+        underTest.finish()
+
+        assertThat(underTest.isMaxLengthExceeded).isFalse()
+        assertThat(target.toString()).isEqualTo("ab$Emoji")
+    }
+
+    @Test
+    fun utf8Bytes_SurrogatePairAppendedCharByChar_DoesNotGetSplit() {
+        val target = StringBuilder()
+        val underTest = utf8BytesLimited(target, 6)
+
+        underTest.append("abcd")
+        underTest.append(Emoji[0])
+        underTest.append(Emoji[1])
+        underTest.finish()
+
+        assertThat(underTest.isMaxLengthExceeded).isTrue()
+        assertThat(target.toString()).isEqualTo("abc...")
+    }
+
+    @Test
+    fun utf8Bytes_SurrogatePairSpanningAppends_CountsFourBytes() {
+        val target = StringBuilder()
+        val underTest = utf8BytesLimited(target, 7)
+
+        underTest.append("ab" + Emoji[0])
+        underTest.append(Emoji[1] + "c")
+        underTest.finish()
+
+        assertThat(underTest.isMaxLengthExceeded).isFalse()
+        assertThat(target.toString()).isEqualTo("ab${Emoji}c")
+    }
+
+    @Test
+    fun utf8Bytes_NonAsciiCharsAppendedCharByChar() {
+        val target = StringBuilder()
+        val underTest = utf8BytesLimited(target, 8)
+
+        "äöü€".forEach { underTest.append(it) } // 2 + 2 + 2 + 3 bytes
+        underTest.finish()
+
+        assertThat(underTest.isMaxLengthExceeded).isTrue()
+        assertThat(target.toString()).isEqualTo("äö...")
+    }
+
+
+    private fun utf8BytesLimited(target: StringBuilder, maxLength: Int) =
+        LengthLimitedAppendable(target, maxLength, StringLengthUnit.Utf8Bytes, "...", Utf8Encoder.Default)
+
+}
@@ -0,0 +1,75 @@
+package net.codinux.log.stacktrace
+
+import assertk.assertThat
+import assertk.assertions.*
+import net.codinux.log.test.TestPlatform
+import org.example.log.stack.StackTraceGenerator
+import kotlin.test.Test
+
+class StackFrameTest {
+
+    companion object {
+        private const val FrameLine = "at org.example.UserService.createUser(UserService.kt:42)"
+    }
+
+
+    @Test
+    fun parsedStackFrame() {
+        val result = ParsedStackFrame("\t\t$FrameLine")
+
+        assertThat(result.line).isEqualTo(FrameLine)
+        assertThat(result.originalIndent).isEqualTo("\t\t")
+        assertThat(result.originalLine).isEqualTo("\t\t$FrameLine")
+        assertThat(result.declaringClass).isNull()
+    }
+
+    @Test
+    fun parsedStackFrameEqualsEagerStackFrame() {
+        val result = ParsedStackFrame("    $FrameLine")
+
+        assertThat(result).isEqualTo(StackFrame(FrameLine, "    ", "    $FrameLine"))
+        assertThat(result.hashCode()).isEqualTo(StackFrame(FrameLine, "    ", "    $FrameLine").hashCode())
+    }
+
+    @Test
+    fun parsedStackFramesEqual() {
+        val result = ParsedStackFrame("\t$FrameLine")
+
+        assertThat(result).isEqualTo(ParsedStackFrame("\t$FrameLine"))
+        assertThat(result).isNotEqualTo(ParsedStackFrame("    $FrameLine"))
+        assertThat(result.hashCode()).isEqualTo(ParsedStackFrame("\t$FrameLine").hashCode())
+    }
+
+    @Test
+    fun copy() {
+        val result = ParsedStackFrame("\t$FrameLine").copy(originalIndent = "  ")
+
+        assertThat(result).isEqualTo(StackFrame(FrameLine, "  ", "\t$FrameLine"))
+    }
+
+    @Test
+    fun destructuring() {
+        val (line, originalIndent, originalLine) = ParsedStackFrame("\t$FrameLine")
+
+        assertThat(line).isEqualTo(FrameLine)
+        assertThat(originalIndent).isEqualTo("\t")
+        assertThat(originalLine).isEqualTo("\t$FrameLine")
+    }
+
+    @Test
+    fun structuredStackFrame() {
+        if (TestPlatform.SupportsStructuredStackTraces == false) {
+            return
+        }
+
+        val frame = StackTraceExtractor.Default.extractStackTrace(StackTraceGenerator.generateSingle()).stackTrace.first()
+
+        assertThat(frame.declaringClass).isEqualTo("org.example.log.stack.StackTraceGenerator")
+        assertThat(frame.methodName).isNotNull().isEqualTo("eight")
+        assertThat(frame.fileName).isEqualTo("StackTraceGenerator.kt")
+        assertThat(frame.lineNumber).isNotNull().isGreaterThan(0)
+        assertThat(frame.line).isEqualTo("at org.example.log.stack.StackTraceGenerator.eight(StackTraceGenerator.kt:${frame.lineNumber})")
+        assertThat(frame.originalLine).isEqualTo("\t" + frame.line)
+    }
+
+}
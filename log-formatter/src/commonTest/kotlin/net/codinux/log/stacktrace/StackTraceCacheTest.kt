@@ -0,0 +1,122 @@
+package net.codinux.log.stacktrace
+
+import assertk.assertThat
+import assertk.assertions.*
+import net.codinux.log.test.TestPlatform
+import org.example.log.stack.StackTraceGenerator
+import kotlin.test.Test
+import kotlin.time.Duration.Companion.minutes
+import kotlin.time.TestTimeSource
+
+class StackTraceCacheTest {
+
+    private val timeSource = TestTimeSource()
+
+    private val cache = StackTraceCache(timeToLive = 5.minutes, timeSource = timeSource, recordStatistics = true)
+
+    private val underTest = StackTraceFormatter(stackTraceCache = cache)
+
+    private val uncachedFormatter = StackTraceFormatter()
+
+
+    @Test
+    fun cachedStackTraceEqualsUncachedStackTrace() {
+        val throwable = StackTraceGenerator.generateTwoSuppressed()
+
+        val first = underTest.format(throwable)
+        val second = underTest.format(throwable)
+
+        assertThat(first).isEqualTo(uncachedFormatter.format(throwable))
+        assertThat(second).isEqualTo(first)
+        if (TestPlatform.SupportsStructuredStackTraces) {
+            assertThat(cache.hits).isEqualTo(1L)
+            assertThat(cache.misses).isEqualTo(1L)
+        }
+    }
+
+    @Test
+    fun messageLinesAreRenderedForEachThrowable() {
+        val (first, second) = listOf("First", "Second").map { message -> wrap(IllegalStateException(message)) }
+
+        underTest.format(first)
+        val result = underTest.format(second)
+
+        assertThat(result).isEqualTo(uncachedFormatter.format(second))
+        assertThat(result).contains("Second")
+        assertThat(result).doesNotContain("First")
+        if (TestPlatform.SupportsStructuredStackTraces) {
+            assertThat(cache.hitRate).isEqualTo(0.5)
+        }
+    }
+
+    @Test
+    fun differentOptionsAreCachedSeparately() {
+        val throwable = StackTraceGenerator.generateCausedBy()
+        val shortenerOptions = StackTraceShortenerOptions(maxFramesPerThrowable = 2)
+
+        underTest.format(throwable)
+        val result = underTest.format(throwable, shortenerOptions = shortenerOptions)
+
+        assertThat(result).isEqualTo(uncachedFormatter.format(throwable, shortenerOptions = shortenerOptions))
+        assertThat(cache.hits).isEqualTo(0L)
+    }
+
+    @Test
+    fun maxStackTraceStringLength() {
+        val throwable = StackTraceGenerator.generateTwoCausedBy()
+        val options = StackTraceFormatterOptions(maxStackTraceStringLength = 100)
+
+        underTest.format(throwable, options)
+        val result = underTest.format(throwable, options)
+
+        assertThat(result).hasLength(100)
+        assertThat(result).isEqualTo(uncachedFormatter.format(throwable, options))
+    }
+
+    @Test
+    fun expiredEntryGetsReplaced() {
+        if (TestPlatform.SupportsStructuredStackTraces == false) {
+            return
+        }
+
+        val throwable = StackTraceGenerator.generateSingle()
+
+        underTest.format(throwable)
+        timeSource += 6.minutes
+        underTest.format(throwable)
+        underTest.format(throwable)
+
+        assertThat(cache.expirations).isEqualTo(1L)
+        assertThat(cache.misses).isEqualTo(2L)
+        assertThat(cache.hits).isEqualTo(1L)
+        assertThat(cache.size).isEqualTo(1)
+    }
+
+    @Test
+    fun sameHashOfDifferentStackTrace_IsMiss() {
+        val key = StackTraceCache.Key(42L, StackTraceFormatterOptions.Default, StackTraceShortenerOptions.Default)
+        val cached = StackTraceFingerprint(42L, listOf("java.lang.IllegalStateException"), listOf("java.lang.IllegalStateException", listOf("at A.a(A.kt:1)")))
+        val collision = StackTraceFingerprint(42L, listOf("java.lang.IllegalStateException"), listOf("java.lang.IllegalStateException", listOf("at B.b(B.kt:2)")))
+        cache.put(key, cached, FormattedStackTraceTemplate.parse("Cached"))
+
+        assertThat(cache.get(key, collision)).isNull()
+        assertThat(cache.get(key, cached)).isNotNull()
+    }
+
+    @Test
+    fun statisticsAreNotRecordedByDefault() {
+        val cache = StackTraceCache()
+        val underTest = StackTraceFormatter(stackTraceCache = cache)
+        val throwable = StackTraceGenerator.generateSingle()
+
+        underTest.format(throwable)
+        underTest.format(throwable)
+
+        assertThat(cache.hits).isEqualTo(0L)
+        assertThat(cache.misses).isEqualTo(0L)
+    }
+
+
+    private fun wrap(cause: Throwable) = RuntimeException("Wrapper", cause)
+
+}
@@ -2,6 +2,7 @@ package net.codinux.log.stacktrace
 
 import assertk.assertThat
 import assertk.assertions.*
+import net.codinux.log.test.TestPlatform
 import org.example.log.stack.StackTraceGenerator
 import kotlin.test.Test
 
@@ -104,6 +105,49 @@ class StackTraceExtractorTest {
     }
 
 
+    @Test
+    fun throwableEqualsParsedStackTraceString() {
+        listOf(StackTraceGenerator.generateThreeCausedBy(), StackTraceGenerator.generateTwoSuppressed()).forEach { throwable ->
+            val result = underTest.extractStackTrace(throwable)
+
+            assertThat(result).isEqualTo(underTest.extractStackTrace(throwable.stackTraceToString()))
+        }
+    }
+
+    @Test
+    fun causedByAndSuppressedThrowable() {
+        if (TestPlatform.SupportsStructuredStackTraces == false) {
+            return // the stack trace string parser only extracts either the cause or the suppressed exceptions
+        }
+
+        val throwable = StackTraceGenerator.generateCausedBy().apply { addSuppressed(StackTraceGenerator.generateSingle()) }
+
+        val result = underTest.extractStackTrace(throwable)
+
+        assertIsFirstParentException(result.copy(suppressed = emptyList()))
+        assertThat(result.suppressed).hasSize(1)
+        assertIsRootCause(result.suppressed.first())
+        assertIsRootCause(result.causedBy!!)
+    }
+
+    @Test
+    fun circularReference() {
+        if (TestPlatform.SupportsStructuredStackTraces == false) {
+            return
+        }
+
+        val throwable = StackTraceGenerator.generateSingle()
+        val wrapper = IllegalStateException("Wrapper", throwable)
+        throwable.addSuppressed(wrapper)
+
+        val result = underTest.extractStackTrace(wrapper)
+
+        val circularReference = result.causedBy!!.suppressed.first()
+        assertThat(circularReference.messageLine).isEqualTo("[CIRCULAR REFERENCE: $wrapper]")
+        assertThat(circularReference.stackTrace).isEmpty()
+    }
+
+
     @Test
     fun isCausedByLine_CausedByLine() {
         val line = "Caused by: org.example.log.stack.RootCauseException: Root cause"
@@ -11,6 +11,8 @@ class StackTraceFormatterTest {
 
     private val underTest = StackTraceFormatter()
 
+    private val deprecatedApi = DeprecatedApiStackTraceFormatter()
+
 
     @Test
     fun maxStackTraceStringLength() {
@@ -46,6 +48,54 @@ class StackTraceFormatterTest {
     }
 
 
+    @Test
+    fun maxStackTraceStringLength_Utf8Bytes() {
+        val maxStackTraceStringLength = 100
+        val options = StackTraceFormatterOptions(maxStackTraceStringLength = maxStackTraceStringLength,
+            maxStackTraceStringLengthUnit = StringLengthUnit.Utf8Bytes)
+
+        val result = underTest.format(Throwable("Überprüfung fehlgeschlagen: ${"ä".repeat(100)}"), options)
+
+        assertThat(result.encodeToByteArray().size).isLessThanOrEqualTo(maxStackTraceStringLength)
+        assertThat(result.encodeToByteArray().size).isGreaterThan(maxStackTraceStringLength - 2)
+        assertThat(result.length).isLessThan(maxStackTraceStringLength)
+        assertThat(result).endsWith(options.ellipsis)
+    }
+
+    @Test
+    fun formatTo_AppendsToExistingContent() {
+        val throwable = StackTraceGenerator.generateTwoSuppressed()
+        val builder = StringBuilder("Prefix ")
+
+        underTest.formatTo(throwable, builder)
+
+        assertThat(builder.toString()).isEqualTo("Prefix " + underTest.format(throwable))
+    }
+
+    @Test
+    fun formatTo_MaxStackTraceStringLength() {
+        val options = StackTraceFormatterOptions(maxStackTraceStringLength = 100)
+        val builder = StringBuilder("Prefix ")
+
+        underTest.formatTo(StackTraceGenerator.generateTwoCausedBy(), builder, options)
+
+        assertThat(builder.length).isEqualTo("Prefix ".length + 100)
+        assertThat(builder.toString()).isEqualTo("Prefix " + underTest.format(StackTraceGenerator.generateTwoCausedBy(), options))
+    }
+
+    @Test
+    fun formatTo_MaxStackTraceStringLength_Utf8Bytes() {
+        val throwable = Throwable("Überprüfung fehlgeschlagen: ${"ä".repeat(100)}")
+        val options = StackTraceFormatterOptions(maxStackTraceStringLength = 99, maxStackTraceStringLengthUnit = StringLengthUnit.Utf8Bytes)
+        val builder = StringBuilder()
+
+        underTest.formatTo(throwable, builder, options)
+
+        assertThat(builder.toString()).isEqualTo(underTest.format(throwable, options))
+        assertThat(builder.toString().encodeToByteArray().size).isLessThanOrEqualTo(99)
+    }
+
+
     @Test
     fun maxFramesPerThrowable_2_SingleThrowable() {
         val maxFramesPerThrowable = 2
@@ -228,6 +278,28 @@ class StackTraceFormatterTest {
         assertThat(result).endsWith(options.lineSeparator + options.suppressedExceptionIndent + options.ellipsis + " 1 suppressed exception(s) omitted")
     }
 
+    @Test
+    fun deprecated_appendStackTraceAndChildren() {
+        val stackTrace = shortenStackTrace(StackTraceGenerator.generateTwoCausedBy())
+        val builder = StringBuilder()
+
+        deprecatedApi.appendStackTraceAndChildren(stackTrace, builder, StackTraceFormatterOptions.Default)
+
+        assertThat(builder.toString()).isEqualTo(underTest.format(stackTrace))
+    }
+
+    @Test
+    fun deprecated_cropToMaxLength() {
+        val options = StackTraceFormatterOptions(maxStackTraceStringLength = 10)
+        val builder = StringBuilder("Something went wrong")
+
+        assertThat(deprecatedApi.exceedsMaxLength(builder, options)).isTrue()
+        deprecatedApi.cropToMaxLength(builder, options)
+
+        assertThat(builder.toString()).isEqualTo("Somethi...")
+        assertThat(deprecatedApi.exceedsMaxLength(builder, options)).isFalse()
+    }
+
 
     private fun assertTruncatedStackTrace(lines: List<String>, stackTrace: ShortenedStackTrace, unqualifiedMessageLine: String,
                                           options: StackTraceFormatterOptions, maxFramesPerThrowable: Int, messageLinePrefix: String = "", additionalIndent: String = "") {
@@ -266,4 +338,20 @@ class StackTraceFormatterTest {
                                   maxSuppressedThrowables: Int? = null, rootCauseFirst: Boolean = false) =
         stackTraceShortener.shorten(throwable, StackTraceShortenerOptions(maxFramesPerThrowable, maxNestedThrowables, maxSuppressedThrowables, rootCauseFirst))
 
-}
\ No newline at end of file
+}
+
+
+@Suppress("OVERRIDE_DEPRECATION", "DEPRECATION")
+private class DeprecatedApiStackTraceFormatter : StackTraceFormatter() {
+
+    public override fun appendStackTraceAndChildren(stackTrace: ShortenedStackTrace, builder: StringBuilder, options: StackTraceFormatterOptions,
+                                                    additionalIndent: String, messageLinePrefix: String) =
+        super.appendStackTraceAndChildren(stackTrace, builder, options, additionalIndent, messageLinePrefix)
+
+    public override fun cropToMaxLength(builder: StringBuilder, options: StackTraceFormatterOptions) =
+        super.cropToMaxLength(builder, options)
+
+    public override fun exceedsMaxLength(builder: StringBuilder, options: StackTraceFormatterOptions) =
+        super.exceedsMaxLength(builder, options)
+
+}
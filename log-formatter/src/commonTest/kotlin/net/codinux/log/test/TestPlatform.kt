@@ -13,4 +13,10 @@ object TestPlatform {
 
     val SupportsPackageNames = Platform.isJavaScript == false
 
+    val SupportsNamedTimeZones = Platform.isJvmOrAndroid
+
+    val SupportsStructuredStackTraces = Platform.isJvmOrAndroid
+
+    val SupportsThreadLocals = Platform.isJvmOrAndroid
+
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package net.codinux.log.platform
+
+actual class ThreadLocalValue<T : Any> actual constructor(initializer: () -> T) {
+
+    actual fun get(): T? = null // no thread locals on this platform
+
+}
@@ -0,0 +1,149 @@
+@file:JvmName("LogEventFormatterUtf8")
+
+package net.codinux.log.formatter
+
+import net.codinux.log.LogEvent
+import net.codinux.log.buffer.StringBuilderPool
+import net.codinux.log.encoding.Utf8Encoder
+import java.io.OutputStream
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+
+private const val DefaultBatchChunkSize = 64 * 1024
+
+// count of chars that get encoded at once into the reused byte buffer when writing to streams and direct buffers
+private const val EncodeChunkSize = 8 * 1024
+
+// taken out while in use, so that nested calls, e.g. by a stream that logs itself, get their own buffer
+private val encodeBuffers = ThreadLocal<ByteArray?>()
+
+/**
+ * Formats [event] and writes it UTF-8 encoded to [buffer] without creating an intermediate String.
+ *
+ * @return The count of bytes written to [buffer].
+ * @throws BufferOverflowException If [buffer] has not enough space remaining for the encoded log line.
+ * [buffer]'s position is not changed in this case.
+ */
+@JvmOverloads
+fun LogEventFormatter.formatEventTo(event: LogEvent, buffer: ByteBuffer, encoder: Utf8Encoder = Utf8Encoder.Default,
+                                    stringBuilderPool: StringBuilderPool = StringBuilderPool.Default): Int {
+    val builder = stringBuilderPool.acquire(this.estimateLength(event))
+
+    try {
+        this.formatEventTo(event, builder)
+
+        return encoder.encodeInto(builder, buffer)
+    } finally {
+        stringBuilderPool.release(builder)
+    }
+}
+
+/**
+ * Formats [event] and writes it UTF-8 encoded to [stream] without creating an intermediate String.
+ *
+ * @return The count of bytes written to [stream].
+ */
+@JvmOverloads
+fun LogEventFormatter.formatEventTo(event: LogEvent, stream: OutputStream, encoder: Utf8Encoder = Utf8Encoder.Default,
+                                    stringBuilderPool: StringBuilderPool = StringBuilderPool.Default): Int {
+    val builder = stringBuilderPool.acquire(this.estimateLength(event))
+
+    try {
+        this.formatEventTo(event, builder)
+
+        return writeTo(builder, stream, encoder)
+    } finally {
+        stringBuilderPool.release(builder)
+    }
+}
+
+/**
+ * Formats a whole batch of [events] and writes them UTF-8 encoded to [stream].
+ *
+ * Events are formatted into one buffer that is encoded and written to [stream] each time it exceeds
+ * [chunkSize] characters.
+ *
+ * @return The count of bytes written to [stream].
+ */
+@JvmOverloads
+fun LogEventFormatter.formatEventsTo(events: List<LogEvent>, stream: OutputStream, encoder: Utf8Encoder = Utf8Encoder.Default,
+                                     chunkSize: Int = DefaultBatchChunkSize): Int {
+    val builder = StringBuilder(chunkSize + this.estimateLength(events.firstOrNull() ?: return 0))
+    var countBytes = 0
+
+    events.forEach { event ->
+        this.formatEventTo(event, builder)
+
+        if (builder.length >= chunkSize) {
+            countBytes += writeTo(builder, stream, encoder)
+            builder.setLength(0)
+        }
+    }
+
+    if (builder.isNotEmpty()) {
+        countBytes += writeTo(builder, stream, encoder)
+    }
+
+    return countBytes
+}
+
+private fun writeTo(chars: CharSequence, stream: OutputStream, encoder: Utf8Encoder): Int {
+    var countBytes = 0
+
+    encodeInChunks(chars, encoder) { bytes, length ->
+        stream.write(bytes, 0, length)
+        countBytes += length
+    }
+
+    return countBytes
+}
+
+/**
+ * Encodes [chars] in chunks of [EncodeChunkSize] chars into a byte buffer that is reused per thread and passes
+ * each encoded chunk to [write], so that no byte array for the whole text has to be allocated.
+ */
+private inline fun encodeInChunks(chars: CharSequence, encoder: Utf8Encoder, write: (bytes: ByteArray, length: Int) -> Unit) {
+    val bytes = encodeBuffers.get() ?: ByteArray(EncodeChunkSize * Utf8Encoder.MaxBytesPerChar)
+    encodeBuffers.set(null)
+
+    try {
+        var index = 0
+        while (index < chars.length) {
+            var endIndex = minOf(index + EncodeChunkSize, chars.length)
+            if (endIndex < chars.length && chars[endIndex - 1].isHighSurrogate()) {
+                endIndex-- // don't split surrogate pairs
+            }
+
+            write(bytes, encoder.encodeInto(chars, bytes, 0, index, endIndex))
+
+            index = endIndex
+        }
+    } finally {
+        encodeBuffers.set(bytes)
+    }
+}
+
+/**
+ * Encodes [chars] to UTF-8 and writes them to [buffer], directly into its backing array if it has one.
+ *
+ * @return The count of bytes written to [buffer].
+ * @throws BufferOverflowException If [buffer] has not enough space remaining for the encoded characters.
+ */
+fun Utf8Encoder.encodeInto(chars: CharSequence, buffer: ByteBuffer): Int {
+    val countBytes = encodedLength(chars)
+    if (countBytes > buffer.remaining()) {
+        throw BufferOverflowException()
+    }
+
+    if (buffer.hasArray()) {
+        val offset = buffer.arrayOffset() + buffer.position()
+        encodeInto(chars, buffer.array(), offset)
+        buffer.position(buffer.position() + countBytes)
+    } else {
+        encodeInChunks(chars, this) { bytes, length ->
+            buffer.put(bytes, 0, length)
+        }
+    }
+
+    return countBytes
+}
@@ -0,0 +1,15 @@
+package net.codinux.log.platform
+
+import java.util.concurrent.ConcurrentHashMap
+
+actual class ConcurrentMap<K : Any, V : Any> actual constructor() {
+
+    private val map = ConcurrentHashMap<K, V>()
+
+
+    actual operator fun get(key: K): V? = map[key]
+
+    actual fun getOrPut(key: K, defaultValue: () -> V): V =
+        map[key] ?: map.computeIfAbsent(key) { defaultValue() }
+
+}
@@ -0,0 +1,52 @@
+package net.codinux.log.platform
+
+import net.codinux.log.stacktrace.StackFrame
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+
+/**
+ * A [StackFrame] backed by a [StackTraceElement]. [line] is rendered the same way as in [Throwable.printStackTrace],
+ * but only when it gets accessed.
+ */
+internal class JavaStackFrame(
+    private val element: StackTraceElement,
+    private val indent: String
+) : StackFrame() {
+
+    companion object {
+        private const val NativeMethodLineNumber = -2
+
+        // StackTraceElement.getModuleName() exists only since Java 9
+        private val getModuleName: MethodHandle? = try {
+            MethodHandles.publicLookup().findVirtual(StackTraceElement::class.java, "getModuleName", MethodType.methodType(String::class.java))
+        } catch (e: ReflectiveOperationException) {
+            null
+        }
+    }
+
+
+    override val declaringClass: String
+        get() = element.className
+
+    override val methodName: String
+        get() = element.methodName
+
+    override val fileName: String?
+        get() = element.fileName
+
+    override val lineNumber: Int?
+        get() = element.lineNumber.takeIf { it >= 0 }
+
+    override val moduleName: String?
+        get() = getModuleName?.invoke(element) as? String
+
+    val isNativeMethod: Boolean
+        get() = element.lineNumber == NativeMethodLineNumber
+
+
+    override fun renderLine() = "at $element"
+
+    override fun renderOriginalIndent() = indent
+
+}
@@ -0,0 +1,119 @@
+package net.codinux.log.platform
+
+import net.codinux.log.stacktrace.StackTrace
+import net.codinux.log.stacktrace.StackTraceFingerprint
+import net.codinux.log.stacktrace.StackTraceFingerprint.Companion.CauseMarker
+import net.codinux.log.stacktrace.StackTraceFingerprint.Companion.CircularReferenceMarker
+import net.codinux.log.stacktrace.StackTraceFingerprint.Companion.EndMarker
+import net.codinux.log.stacktrace.StackTraceFingerprint.Companion.Seed
+import net.codinux.log.stacktrace.StackTraceFingerprint.Companion.SuppressedMarker
+import net.codinux.log.stacktrace.StackTraceFingerprint.Companion.mix
+import java.util.Collections
+import java.util.IdentityHashMap
+
+/**
+ * Builds [StackTrace]s directly from [Throwable.getStackTrace], [Throwable.cause] and [Throwable.getSuppressed]
+ * instead of rendering the stack trace with [Throwable.stackTraceToString] and parsing the text back.
+ *
+ * The result is the same the text parser returns for the output of [Throwable.printStackTrace]: Frames common with
+ * the enclosing throwable are omitted and counted in [StackTrace.countSkippedCommonFrames], circular references are
+ * replaced by a "[CIRCULAR REFERENCE: ...]" message line.
+ */
+internal object JavaStackTraceExtractor {
+
+    private const val FrameIndent = "\t"
+
+
+
+    fun extractStackTrace(throwable: Throwable): StackTrace =
+        extractStackTrace(throwable, null, "", Collections.newSetFromMap(IdentityHashMap()))
+
+    private fun extractStackTrace(throwable: Throwable, enclosingTrace: Array<StackTraceElement>?, indent: String,
+                                  visitedThrowables: MutableSet<Throwable>): StackTrace {
+        visitedThrowables.add(throwable)
+
+        val trace = throwable.stackTrace
+        val countCommonFrames = if (enclosingTrace == null) 0 else countCommonFrames(trace, enclosingTrace)
+
+        val frameIndent = indent + FrameIndent
+        val frames = List(trace.size - countCommonFrames) { index -> JavaStackFrame(trace[index], frameIndent) }
+
+        val suppressed = throwable.suppressed.map { extractEnclosedStackTrace(it, trace, frameIndent, visitedThrowables) }
+        val causedBy = throwable.cause?.let { extractEnclosedStackTrace(it, trace, indent, visitedThrowables) }
+
+        return StackTrace(throwable.toString(), frames, causedBy, suppressed, countCommonFrames)
+    }
+
+    private fun extractEnclosedStackTrace(throwable: Throwable, enclosingTrace: Array<StackTraceElement>, indent: String,
+                                          visitedThrowables: MutableSet<Throwable>): StackTrace =
+        if (visitedThrowables.contains(throwable)) {
+            StackTrace("[CIRCULAR REFERENCE: $throwable]", emptyList())
+        } else {
+            extractStackTrace(throwable, enclosingTrace, indent, visitedThrowables)
+        }
+
+    /**
+     * Computes the [StackTraceFingerprint] in the same order in which [extractStackTrace] traverses the Throwables,
+     * so that the message lines match the message lines of the extracted [StackTrace]s.
+     */
+    fun getFingerprint(throwable: Throwable): StackTraceFingerprint {
+        val messageLines = mutableListOf<String>()
+        val frameIdentity = mutableListOf<Any>()
+
+        val hash = getFingerprint(throwable, Seed, messageLines, frameIdentity, Collections.newSetFromMap(IdentityHashMap()))
+
+        return StackTraceFingerprint(hash, messageLines, frameIdentity)
+    }
+
+    private fun getFingerprint(throwable: Throwable, seed: Long, messageLines: MutableList<String>, frameIdentity: MutableList<Any>,
+                               visitedThrowables: MutableSet<Throwable>): Long {
+        visitedThrowables.add(throwable)
+        messageLines.add(throwable.toString())
+
+        val trace = throwable.stackTrace
+        var hash = mix(mix(seed, throwable.javaClass.name.hashCode()), trace.size)
+        trace.forEach { element ->
+            hash = mix(hash, element.hashCode())
+        }
+        frameIdentity.add(throwable.javaClass.name)
+        frameIdentity.add(trace.asList()) // compares the StackTraceElements, which getStackTrace() returns a copy of
+
+        throwable.suppressed.forEach { suppressed ->
+            frameIdentity.add(SuppressedMarker)
+            hash = getEnclosedFingerprint(suppressed, mix(hash, SuppressedMarker), messageLines, frameIdentity, visitedThrowables)
+        }
+
+        throwable.cause?.let { cause ->
+            frameIdentity.add(CauseMarker)
+            hash = getEnclosedFingerprint(cause, mix(hash, CauseMarker), messageLines, frameIdentity, visitedThrowables)
+        }
+
+        frameIdentity.add(EndMarker)
+
+        return mix(hash, EndMarker)
+    }
+
+    private fun getEnclosedFingerprint(throwable: Throwable, seed: Long, messageLines: MutableList<String>, frameIdentity: MutableList<Any>,
+                                       visitedThrowables: MutableSet<Throwable>): Long =
+        if (visitedThrowables.contains(throwable)) {
+            messageLines.add("[CIRCULAR REFERENCE: $throwable]")
+            frameIdentity.add(CircularReferenceMarker)
+            mix(seed, CircularReferenceMarker)
+        } else {
+            getFingerprint(throwable, seed, messageLines, frameIdentity, visitedThrowables)
+        }
+
+    // same algorithm as Throwable.printEnclosedStackTrace(): count equal frames from the bottom of both traces
+    private fun countCommonFrames(trace: Array<StackTraceElement>, enclosingTrace: Array<StackTraceElement>): Int {
+        var index = trace.size - 1
+        var enclosingIndex = enclosingTrace.size - 1
+
+        while (index >= 0 && enclosingIndex >= 0 && trace[index] == enclosingTrace[enclosingIndex]) {
+            index--
+            enclosingIndex--
+        }
+
+        return trace.size - 1 - index
+    }
+
+}
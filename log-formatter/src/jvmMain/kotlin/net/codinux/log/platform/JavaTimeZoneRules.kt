@@ -0,0 +1,33 @@
+package net.codinux.log.platform
+
+import net.codinux.log.formatter.datetime.TimeZoneRules
+import net.codinux.log.formatter.datetime.ZoneOffsetPeriod
+import java.time.Instant
+import java.time.ZoneId
+
+internal class JavaTimeZoneRules(private val zone: ZoneId) : TimeZoneRules {
+
+    private val rules = zone.rules
+
+    override val zoneId: String = zone.id
+
+
+    override fun getOffsetPeriod(epochSecond: Long): ZoneOffsetPeriod {
+        val instant = Instant.ofEpochSecond(epochSecond)
+        val offsetSeconds = rules.getOffset(instant).totalSeconds
+
+        if (rules.isFixedOffset) {
+            return ZoneOffsetPeriod(Long.MIN_VALUE, Long.MAX_VALUE, offsetSeconds)
+        }
+
+        // previousTransition() returns transitions strictly before the passed instant, so add a second to include a transition at epochSecond
+        val start = rules.previousTransition(instant.plusSeconds(1))?.toEpochSecond() ?: Long.MIN_VALUE
+        val end = rules.nextTransition(instant)?.toEpochSecond() ?: Long.MAX_VALUE
+
+        return ZoneOffsetPeriod(start, end, offsetSeconds)
+    }
+
+
+    override fun toString() = zoneId
+
+}
@@ -4,6 +4,11 @@ import net.codinux.log.classname.ClassInfo
 import net.codinux.log.classname.ClassNameComponents
 import net.codinux.log.classname.ClassNameResolver
 import net.codinux.log.classname.ClassType
+import net.codinux.log.formatter.datetime.TimeZoneRules
+import net.codinux.log.stacktrace.StackTrace
+import net.codinux.log.stacktrace.StackTraceFingerprint
+import java.time.DateTimeException
+import java.time.ZoneId
 import kotlin.reflect.KClass
 
 actual object LogFormatterPlatform {
@@ -33,6 +38,20 @@ actual object LogFormatterPlatform {
         ClassInfo(getQualifiedName(forClass), forClass.simpleName, determineType(forClass, forClass.java, isCompanionObject(forClass.java)))
 
 
+    actual fun getTimeZoneRules(zoneId: String): TimeZoneRules? =
+        try {
+            JavaTimeZoneRules(ZoneId.of(zoneId))
+        } catch (e: DateTimeException) { // unknown or invalid zone id
+            null
+        }
+
+    actual fun extractStackTrace(throwable: Throwable): StackTrace? =
+        JavaStackTraceExtractor.extractStackTrace(throwable)
+
+    actual fun getStackTraceFingerprint(throwable: Throwable): StackTraceFingerprint? =
+        JavaStackTraceExtractor.getFingerprint(throwable)
+
+
     private fun <T : Any> getQualifiedName(forClass: KClass<T>) =
         // for lambdas, anonymous and local classes qualified name is null
         forClass.qualifiedName ?: classNameResolver.clean(forClass.toString())
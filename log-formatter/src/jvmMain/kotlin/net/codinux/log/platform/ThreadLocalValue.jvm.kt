@@ -0,0 +1,30 @@
+package net.codinux.log.platform
+
+actual class ThreadLocalValue<T : Any> actual constructor(initializer: () -> T) {
+
+    private companion object {
+        // VirtualThread is only available on Java 21+. We cannot reference Thread.isVirtual() directly
+        // as we compile for Java 8, and comparing classes is cheaper than a reflective method call
+        private val VirtualThreadClass: Class<*>? = try {
+            Class.forName("java.lang.VirtualThread")
+        } catch (ignored: Throwable) {
+            null
+        }
+    }
+
+
+    private val threadLocal = ThreadLocal.withInitial(initializer)
+
+
+    actual fun get(): T? {
+        val currentThread = Thread.currentThread()
+
+        // there may be millions of virtual threads, each retaining its own value would blow up the heap
+        return if (VirtualThreadClass != null && VirtualThreadClass.isInstance(currentThread)) {
+            null
+        } else {
+            threadLocal.get()
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package net.codinux.log.platform
+
+import kotlin.concurrent.AtomicReference
+
+actual class ConcurrentMap<K : Any, V : Any> actual constructor() {
+
+    // copy on write: reads don't lock, and values get computed outside of any lock and then published with
+    // compareAndSet(), so that computing them doesn't block other threads and may call getOrPut() again
+    private val map = AtomicReference<Map<K, V>>(emptyMap())
+
+
+    actual operator fun get(key: K): V? = map.value[key]
+
+    actual fun getOrPut(key: K, defaultValue: () -> V): V {
+        map.value[key]?.let { return it }
+
+        val value = defaultValue()
+
+        while (true) {
+            val current = map.value
+            current[key]?.let { return it } // another thread published its value first, return that one
+
+            if (map.compareAndSet(current, current + (key to value))) {
+                return value
+            }
+        }
+    }
+
+}
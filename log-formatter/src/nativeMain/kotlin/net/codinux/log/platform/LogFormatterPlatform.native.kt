@@ -4,6 +4,9 @@ import net.codinux.log.classname.ClassInfo
 import net.codinux.log.classname.ClassNameComponents
 import net.codinux.log.classname.ClassNameResolver
 import net.codinux.log.classname.ClassType
+import net.codinux.log.formatter.datetime.TimeZoneRules
+import net.codinux.log.stacktrace.StackTrace
+import net.codinux.log.stacktrace.StackTraceFingerprint
 import kotlin.reflect.KClass
 
 actual object LogFormatterPlatform {
@@ -13,6 +16,12 @@ actual object LogFormatterPlatform {
 
     actual fun <T : Any> getClassComponents(forClass: KClass<T>): ClassNameComponents? = null // only senseful on JVM
 
+    actual fun getTimeZoneRules(zoneId: String): TimeZoneRules? = null // only implemented on JVM
+
+    actual fun extractStackTrace(throwable: Throwable): StackTrace? = null // the stack trace string has to be parsed
+
+    actual fun getStackTraceFingerprint(throwable: Throwable): StackTraceFingerprint? = null // only implemented on JVM
+
     actual fun <T : Any> getClassInfo(forClass: KClass<T>) =
         ClassInfo(getQualifiedName(forClass), forClass.simpleName, getType(forClass))
 
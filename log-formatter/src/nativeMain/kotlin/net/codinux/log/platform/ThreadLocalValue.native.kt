@@ -0,0 +1,8 @@
+package net.codinux.log.platform
+
+actual class ThreadLocalValue<T : Any> actual constructor(initializer: () -> T) {
+
+    // values of terminated threads can't be removed on Native, so short-lived threads would leak them
+    actual fun get(): T? = null
+
+}
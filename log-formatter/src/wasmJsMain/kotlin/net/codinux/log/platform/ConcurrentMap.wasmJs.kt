@@ -0,0 +1,12 @@
+package net.codinux.log.platform
+
+actual class ConcurrentMap<K : Any, V : Any> actual constructor() {
+
+    private val map = HashMap<K, V>() // single threaded platform
+
+
+    actual operator fun get(key: K): V? = map[key]
+
+    actual fun getOrPut(key: K, defaultValue: () -> V): V = map.getOrPut(key, defaultValue)
+
+}
@@ -16,6 +16,7 @@ public class QuarkusLogFormatterSteps {
     @BuildStep
     @Record(ExecutionTime.RUNTIME_INIT)
     // LoggingSetupBuildItem is required so that this logic is run after log handlers have been fully set up
+    // the stack trace options are runtime config, so the StackTraceFormatter can only be created at runtime init
     public void setUpLogAppender(QuarkusLogFormatterRecorder recorder, QuarkusLogFormatterConfig config, LoggingSetupBuildItem loggingSetup) {
         RuntimeValue<Optional<Handler>> modifiedHandler = recorder.initializeLogFormatter(config);
     }
@@ -22,14 +22,17 @@ public class ExceptionFormatStep implements FormatStep {
     public void render(StringBuilder builder, ExtLogRecord record) {
         Throwable thrown = record.getThrown();
         if (thrown != null) {
+            // PatternFormatter sizes its builder only once from estimateLength(), so ensure capacity for the actual stack trace here
+            builder.ensureCapacity(builder.length() + estimateLength());
+
             builder.append(lineSeparator);
-            builder.append(formatter.format(thrown));
+            formatter.formatTo(thrown, builder);
             builder.append(lineSeparator);
         }
     }
 
     @Override
     public int estimateLength() {
-        return 500; // don't know what to return; original code returns 32 which is way more inaccurate
+        return formatter.getEstimatedLength() + 2 * lineSeparator.length(); // running average of the previously formatted stack traces
     }
 }